@@ -0,0 +1,14 @@
+package api_gateway.api_gateway.config;
+
+/**
+ * Headers the gateway sets after it has verified the bearer token. Backend services
+ * that run behind the gateway can trust these instead of parsing the token again.
+ */
+public final class GatewayIdentityHeaders {
+
+    public static final String USERNAME = "X-User-Name";
+    public static final String ROLE = "X-User-Role";
+
+    private GatewayIdentityHeaders() {
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
@@ -14,7 +15,7 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter implements GatewayFilter {
 
-    private final JwtService jwtService;
+    private final TokenVerificationCache tokenVerificationCache;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
@@ -33,11 +34,24 @@ public class JwtAuthenticationFilter implements GatewayFilter {
         }
 
         String token = authHeader.substring(7);
-        if (!jwtService.validateToken(token)) {
+        TokenVerificationCache.VerifiedToken verified = tokenVerificationCache.verify(token);
+        if (verified == null) {
             exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
             return exchange.getResponse().setComplete();
         }
 
-        return chain.filter(exchange);
+        // Forward the verified identity so backends don't have to parse the token again
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.set(GatewayIdentityHeaders.USERNAME, verified.getUsername());
+                    if (verified.getRole() != null) {
+                        headers.set(GatewayIdentityHeaders.ROLE, verified.getRole());
+                    } else {
+                        headers.remove(GatewayIdentityHeaders.ROLE);
+                    }
+                })
+                .build();
+
+        return chain.filter(exchange.mutate().request(request).build());
     }
 }
@@ -0,0 +1,31 @@
+package api_gateway.api_gateway.config;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Drops client-supplied identity headers on every route so only
+ * {@link JwtAuthenticationFilter} can set them.
+ */
+@Component
+public class StripIdentityHeadersFilter implements WebFilter {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        var headers = exchange.getRequest().getHeaders();
+        if (!headers.containsKey(GatewayIdentityHeaders.USERNAME) && !headers.containsKey(GatewayIdentityHeaders.ROLE)) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(h -> {
+                    h.remove(GatewayIdentityHeaders.USERNAME);
+                    h.remove(GatewayIdentityHeaders.ROLE);
+                })
+                .build();
+        return chain.filter(exchange.mutate().request(request).build());
+    }
+}
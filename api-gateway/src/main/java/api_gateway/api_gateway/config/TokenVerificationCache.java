@@ -0,0 +1,131 @@
+package api_gateway.api_gateway.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers tokens the gateway has already verified, keyed by their SHA-256 so raw
+ * tokens are never held in memory. An entry lives until the token's own expiry or
+ * {@code jwt.cache.max-ttl-seconds}, whichever comes first. Everything here is CPU-only,
+ * so it is safe to call from the Reactor event loop.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenVerificationCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final JwtService jwtService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${jwt.cache.max-size:50000}")
+    private long maxSize;
+
+    @Value("${jwt.cache.max-ttl-seconds:300}")
+    private long maxTtlSeconds;
+
+    private Cache<String, VerifiedToken> cache;
+    private Counter hits;
+    private Counter misses;
+    private Timer verifyLatency;
+
+    @PostConstruct
+    public void init() {
+        long maxTtlNanos = TimeUnit.SECONDS.toNanos(maxTtlSeconds);
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        long untilExpiry = TimeUnit.MILLISECONDS.toNanos(value.getExpiresAt() - System.currentTimeMillis());
+                        return Math.max(0, Math.min(untilExpiry, maxTtlNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.jwt.cache");
+        hits = Counter.builder("gateway.jwt.lookups").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("gateway.jwt.lookups").tag("result", "miss").register(meterRegistry);
+        verifyLatency = Timer.builder("gateway.jwt.verify.latency")
+                .description("Time spent verifying a JWT signature on a cache miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the verified identity, or {@code null} if the token is invalid or expired
+     */
+    public VerifiedToken verify(String token) {
+        String key = hash(token);
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null && cached.getExpiresAt() > System.currentTimeMillis()) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        long start = System.nanoTime();
+        try {
+            Claims claims = jwtService.parseClaims(token);
+            if (claims.getSubject() == null) {
+                return null;
+            }
+            long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+            VerifiedToken verified = new VerifiedToken(claims.getSubject(), claims.get("role", String.class), expiresAt);
+            cache.put(key, verified);
+            return verified;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        } finally {
+            verifyLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String hash(String token) {
+        byte[] digest = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(digest);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class VerifiedToken {
+        private final String username;
+        private final String role;
+        private final long expiresAt;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.authservice.config;
 import org.springframework.beans.factory.annotation.Value;
 
+import com.example.authservice.enums.EnumRole;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Service;
@@ -26,7 +27,19 @@ public class JwtService {
     }
 
     public String generateToken(String username) {
-        return Jwts.builder()
+        return generateToken(username, null);
+    }
+
+    /**
+     * Embeds the role as a {@code role} claim so downstream services can build the
+     * principal from the token alone instead of calling back into auth-service.
+     */
+    public String generateToken(String username, EnumRole role) {
+        JwtBuilder builder = Jwts.builder();
+        if (role != null) {
+            builder.claim("role", role.name());
+        }
+        return builder
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
@@ -90,7 +90,7 @@ public class AuthService implements IAuthService {
         if (response.getData().getIsDeleted()) {
             throw new AppException(ErrorCode.USER_DELETED);
         }
-        String token = jwtService.generateToken(auth.getUsername());
+        String token = jwtService.generateToken(auth.getUsername(), response.getData().getRole());
         return LoginResponse.builder()
                 .token(token)
                 .build();
@@ -0,0 +1,150 @@
+package com.example.driverservice.cache;
+
+import com.example.driverservice.event.DriverInvalidationEvent;
+import com.example.driverservice.event.LocationUpdateEvent;
+import com.example.driverservice.model.Driver;
+import com.example.driverservice.repository.DriverRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Bounded read-through cache of driver rows keyed by driverId. Writers update only the
+ * columns they change in the database and then apply the same change to the cached copy
+ * (write-through), or evict it, and every change is announced on the driver-invalidations
+ * topic so other instances drop their copy; the TTL only bounds how long a lost
+ * invalidation can leave a stale entry. Nothing is ever saved from here, so a copy that
+ * is stale in some other column cannot write back an older status, availability or
+ * delivery count.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DriverCache {
+
+    private final DriverRepository driverRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${driver.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${driver.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${driver.kafka.topics.driver-invalidations}")
+    private String invalidationsTopic;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private Cache<String, Driver> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "driver.cache");
+    }
+
+    public Optional<Driver> find(String driverId) {
+        Driver cached = cache.get(driverId, id -> driverRepository.findByDriverId(id).orElse(null));
+        return Optional.ofNullable(cached).map(driver -> driver.toBuilder().build());
+    }
+
+    /**
+     * Caches a row that was just saved and tells the other instances to drop theirs.
+     */
+    public void put(Driver saved) {
+        cache.put(saved.getDriverId(), saved.toBuilder().build());
+        publish(saved.getDriverId());
+    }
+
+    /**
+     * Applies a change that was just written with a column-targeted UPDATE to the cached
+     * copy and tells the other instances to drop theirs. The copy is only patched while it
+     * is cached; once evicted, the next {@link #find} reads the row back, so a change never
+     * revives an entry that another instance invalidated.
+     */
+    public void apply(String driverId, Consumer<Driver> change) {
+        cache.asMap().computeIfPresent(driverId, (id, cached) -> {
+            Driver changed = cached.toBuilder().build();
+            change.accept(changed);
+            return changed;
+        });
+        publish(driverId);
+    }
+
+    /**
+     * For writes that bypass the entity, such as bulk UPDATEs and deletes.
+     */
+    public void evict(String driverId) {
+        cache.invalidate(driverId);
+        publish(driverId);
+    }
+
+    /**
+     * Like {@link #evict}, one invalidation per driver, so other instances reload them into
+     * their leaderboard and proximity index as well.
+     */
+    public void evictAll(Collection<String> driverIds) {
+        cache.invalidateAll(driverIds);
+        driverIds.forEach(this::publish);
+    }
+
+    /**
+     * Applies a streamed position to the cached copy, if any. Every instance sees every fix,
+     * so this is local only and never announced.
+     */
+    public void updatePosition(LocationUpdateEvent position) {
+        cache.asMap().computeIfPresent(position.getDriverId(), (id, cached) -> cached.toBuilder()
+                .currentLatitude(position.getLatitude())
+                .currentLongitude(position.getLongitude())
+                .lastActive(position.getTimestamp() != null ? position.getTimestamp() : cached.getLastActive())
+                .build());
+    }
+
+    /**
+     * @return whether the change came from another instance; this instance's own changes
+     * were already applied when they were made
+     */
+    public boolean onInvalidation(DriverInvalidationEvent event) {
+        if (instanceId.equals(event.getOrigin())) {
+            return false;
+        }
+        cache.invalidate(event.getDriverId());
+        return true;
+    }
+
+    // Never throws: the database change it announces has already been made, and a lost
+    // invalidation is bounded by the TTL
+    private void publish(String driverId) {
+        try {
+            String message = objectMapper.writeValueAsString(new DriverInvalidationEvent(driverId, instanceId));
+            kafkaTemplate.send(invalidationsTopic, driverId, message).whenComplete((result, e) -> {
+                if (e != null) {
+                    log.error("Error publishing driver invalidation for {}", driverId, e);
+                }
+            });
+        } catch (Exception e) {
+            log.error("Error publishing driver invalidation for {}", driverId, e);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.driverservice.controller;
 
+import com.example.driverservice.dto.DispatchRequest;
+import com.example.driverservice.dto.DispatchResult;
 import com.example.driverservice.dto.DriverPerformanceResponse;
 import com.example.driverservice.dto.DriverRequest;
 import com.example.driverservice.dto.DriverResponse;
+import com.example.driverservice.leaderboard.LeaderboardMetric;
 import com.example.driverservice.model.DriverStatus;
 import com.example.driverservice.model.VehicleType;
 import com.example.driverservice.service.DriverService;
@@ -119,6 +122,13 @@ public class DriverController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/dispatch")
+    @Operation(summary = "Dispatch orders", description = "Assign the best available nearby driver to each order, in request order")
+    public ResponseEntity<List<DispatchResult>> dispatchOrders(@RequestBody List<@Valid DispatchRequest> orders) {
+        List<DispatchResult> results = driverService.dispatchOrders(orders);
+        return ResponseEntity.ok(results);
+    }
+
     @GetMapping("/near-location")
     @Operation(summary = "Find drivers near location", description = "Find drivers within a specified radius")
     public ResponseEntity<List<DriverResponse>> findDriversNearLocation(
@@ -129,6 +139,17 @@ public class DriverController {
         return ResponseEntity.ok(drivers);
     }
 
+    @GetMapping("/near-location/available")
+    @Operation(summary = "Find nearest available drivers", description = "Find the closest available drivers within a radius, ordered by distance")
+    public ResponseEntity<List<DriverResponse>> findNearestAvailableDrivers(
+            @RequestParam Double latitude,
+            @RequestParam Double longitude,
+            @RequestParam(defaultValue = "5.0") Double radius,
+            @RequestParam(defaultValue = "10") Integer limit) {
+        List<DriverResponse> drivers = driverService.findNearestAvailableDrivers(latitude, longitude, radius, limit);
+        return ResponseEntity.ok(drivers);
+    }
+
     // Performance tracking endpoints
     @PostMapping("/{driverId}/performance")
     @Operation(summary = "Create performance record", description = "Create a new performance record for a driver")
@@ -183,9 +204,12 @@ public class DriverController {
     }
 
     @GetMapping("/top-performers")
-    @Operation(summary = "Get top performers", description = "Get list of top performing drivers")
-    public ResponseEntity<List<DriverResponse>> getTopPerformers(@RequestParam(defaultValue = "10") Integer limit) {
-        List<DriverResponse> performers = driverService.getTopPerformers(limit);
+    @Operation(summary = "Get top performers", description = "Get the best drivers by rating or deliveries, optionally for one vehicle type")
+    public ResponseEntity<List<DriverResponse>> getTopPerformers(
+            @RequestParam(defaultValue = "10") Integer limit,
+            @RequestParam(required = false) VehicleType vehicleType,
+            @RequestParam(defaultValue = "RATING") LeaderboardMetric metric) {
+        List<DriverResponse> performers = driverService.getTopPerformers(limit, vehicleType, metric);
         return ResponseEntity.ok(performers);
     }
 
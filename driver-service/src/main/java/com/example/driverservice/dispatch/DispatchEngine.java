@@ -0,0 +1,163 @@
+package com.example.driverservice.dispatch;
+
+import com.example.driverservice.cache.DriverCache;
+import com.example.driverservice.dto.DispatchRequest;
+import com.example.driverservice.dto.DispatchResult;
+import com.example.driverservice.geo.DriverGeoIndex;
+import com.example.driverservice.geo.NearbyDriver;
+import com.example.driverservice.leaderboard.DriverLeaderboard;
+import com.example.driverservice.model.DriverStatus;
+import com.example.driverservice.repository.DriverRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches pending orders to available drivers and claims them without double-booking.
+ * Candidates come from the geo index and are ranked by distance and rating. A claim is a
+ * compare-and-set in two steps: an in-process set makes concurrent dispatchers on this
+ * instance skip a driver another thread is already claiming, and a conditional UPDATE
+ * makes the database the arbiter between instances. A lost claim moves on to the next
+ * candidate instead of failing the order.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DispatchEngine {
+
+    private final DriverRepository driverRepository;
+    private final DriverCache driverCache;
+    private final DriverGeoIndex geoIndex;
+    private final DriverLeaderboard leaderboard;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${driver.performance.rating-weight:0.3}")
+    private double ratingWeight;
+
+    @Value("${driver.dispatch.default-radius-km:5}")
+    private double defaultRadiusKm;
+
+    @Value("${driver.dispatch.candidates:10}")
+    private int candidateCount;
+
+    private final Set<String> claiming = ConcurrentHashMap.newKeySet();
+
+    private Timer batchLatency;
+    private Counter assigned;
+    private Counter unmatched;
+    private Counter localConflicts;
+    private Counter databaseConflicts;
+    private DistributionSummary attempts;
+
+    @PostConstruct
+    public void init() {
+        batchLatency = Timer.builder("driver.dispatch.batch.latency")
+                .description("Time spent dispatching one batch of orders")
+                .register(meterRegistry);
+        assigned = Counter.builder("driver.dispatch.orders").tag("result", "assigned").register(meterRegistry);
+        unmatched = Counter.builder("driver.dispatch.orders").tag("result", "unmatched").register(meterRegistry);
+        localConflicts = Counter.builder("driver.dispatch.claim.conflicts")
+                .description("Claims lost to another dispatcher")
+                .tag("stage", "local")
+                .register(meterRegistry);
+        databaseConflicts = Counter.builder("driver.dispatch.claim.conflicts")
+                .description("Claims lost to another dispatcher")
+                .tag("stage", "database")
+                .register(meterRegistry);
+        attempts = DistributionSummary.builder("driver.dispatch.claim.attempts")
+                .description("Candidates tried per order")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Dispatches orders in the given order, so earlier orders get first pick of nearby drivers.
+     */
+    public List<DispatchResult> dispatch(List<DispatchRequest> orders) {
+        long start = System.nanoTime();
+        List<DispatchResult> results = new ArrayList<>(orders.size());
+        for (DispatchRequest order : orders) {
+            results.add(dispatch(order));
+        }
+        batchLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return results;
+    }
+
+    /**
+     * Atomically moves an available driver to ON_DELIVERY.
+     *
+     * @return {@code false} if the driver is unknown, not available, or claimed concurrently
+     */
+    public boolean claim(String driverId) {
+        if (!claiming.add(driverId)) {
+            localConflicts.increment();
+            return false;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (driverRepository.claimIfAvailable(driverId, now) == 0) {
+                databaseConflicts.increment();
+                return false;
+            }
+            driverCache.apply(driverId, driver -> {
+                driver.setStatus(DriverStatus.ON_DELIVERY);
+                driver.setIsAvailable(false);
+                driver.setLastActive(now);
+                driver.setUpdatedAt(now);
+            });
+            geoIndex.updateAvailability(driverId, false);
+            return true;
+        } finally {
+            claiming.remove(driverId);
+        }
+    }
+
+    private DispatchResult dispatch(DispatchRequest order) {
+        double radiusKm = order.getRadiusKm() != null ? order.getRadiusKm() : defaultRadiusKm;
+        List<NearbyDriver> candidates = new ArrayList<>(
+                geoIndex.findNearest(order.getLatitude(), order.getLongitude(), radiusKm, candidateCount, true));
+        candidates.sort(Comparator.comparingDouble(candidate -> score(candidate, radiusKm)));
+
+        int tried = 0;
+        for (NearbyDriver candidate : candidates) {
+            tried++;
+            if (claim(candidate.getDriverId())) {
+                attempts.record(tried);
+                assigned.increment();
+                log.debug("Dispatched order {} to driver {} ({} km)", order.getOrderId(), candidate.getDriverId(), candidate.getDistanceKm());
+                return DispatchResult.builder()
+                        .orderId(order.getOrderId())
+                        .assigned(true)
+                        .driverId(candidate.getDriverId())
+                        .distanceKm(candidate.getDistanceKm())
+                        .build();
+            }
+        }
+        attempts.record(tried);
+        unmatched.increment();
+        return DispatchResult.builder()
+                .orderId(order.getOrderId())
+                .assigned(false)
+                .build();
+    }
+
+    // Lower is better: closeness within the radius blended with how far the rating is from 5
+    private double score(NearbyDriver candidate, double radiusKm) {
+        double distance = candidate.getDistanceKm() / radiusKm;
+        double rating = 1.0 - Math.min(leaderboard.getRating(candidate.getDriverId()), 5.0) / 5.0;
+        return (1.0 - ratingWeight) * distance + ratingWeight * rating;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.driverservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DispatchRequest {
+    
+    @NotBlank(message = "Order ID is required")
+    private String orderId;
+    
+    @NotNull(message = "Pickup latitude is required")
+    private Double latitude;
+    
+    @NotNull(message = "Pickup longitude is required")
+    private Double longitude;
+    
+    @Positive(message = "Radius must be positive")
+    private Double radiusKm; // driver.dispatch.default-radius-km when absent
+}
@@ -0,0 +1,17 @@
+package com.example.driverservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DispatchResult {
+    private String orderId;
+    private boolean assigned;
+    private String driverId;   // null when no available driver was in range
+    private Double distanceKm; // from the driver to the pickup point
+}
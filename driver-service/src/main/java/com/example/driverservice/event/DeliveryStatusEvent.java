@@ -0,0 +1,26 @@
+package com.example.driverservice.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Subset of tracking-service's OrderTrackingResponse as published on the delivery-status topic.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DeliveryStatusEvent {
+    private String orderId;
+    private String driverId;
+    private String status;
+    private LocalDateTime actualArrival;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
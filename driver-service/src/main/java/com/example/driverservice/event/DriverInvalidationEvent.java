@@ -0,0 +1,20 @@
+package com.example.driverservice.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Published on the driver-invalidations topic after a driver row changes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DriverInvalidationEvent {
+    private String driverId;
+    private String origin; // instance that made the change and already holds the new state
+}
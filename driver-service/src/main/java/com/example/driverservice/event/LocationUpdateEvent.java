@@ -0,0 +1,26 @@
+package com.example.driverservice.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Subset of tracking-service's LocationResponse as published on the location-updates topic.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class LocationUpdateEvent {
+    private String driverId;
+    private String orderId;
+    private Double latitude;
+    private Double longitude;
+    private Double speed;
+    private LocalDateTime timestamp;
+}
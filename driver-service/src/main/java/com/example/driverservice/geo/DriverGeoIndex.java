@@ -0,0 +1,225 @@
+package com.example.driverservice.geo;
+
+import com.example.driverservice.model.Driver;
+import com.example.driverservice.model.DriverStatus;
+import com.example.driverservice.repository.DriverRepository;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory grid index of driver positions. The world is cut into square cells of
+ * {@code driver.geo.cell-size-degrees}; a k-nearest query scans rings of cells outward
+ * from the query point and stops as soon as no unscanned cell can hold anything closer
+ * than the current k-th candidate, so lookups never touch the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DriverGeoIndex {
+
+    private final DriverRepository driverRepository;
+
+    @Value("${driver.geo.cell-size-degrees:0.01}")
+    private double cellSizeDegrees;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> cells = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        driverRepository.findAll().forEach(this::upsert);
+        log.info("Driver geo index loaded with {} drivers", entries.size());
+    }
+
+    public void upsert(Driver driver) {
+        if (driver.getCurrentLatitude() == null || driver.getCurrentLongitude() == null) {
+            remove(driver.getDriverId());
+            return;
+        }
+        put(driver.getDriverId(), driver.getCurrentLatitude(), driver.getCurrentLongitude(), isAvailable(driver));
+    }
+
+    /**
+     * Moves a driver that is already indexed, keeping its availability.
+     *
+     * @return {@code false} if the driver is not indexed yet; pass it to {@link #addPositions}
+     */
+    public boolean updatePosition(String driverId, double latitude, double longitude) {
+        return entries.computeIfPresent(driverId, (id, current) -> move(id, current, latitude, longitude, current.available)) != null;
+    }
+
+    /**
+     * Indexes drivers whose first position arrived from the location stream, such as drivers
+     * created without one. Their availability is loaded in one query; the position comes
+     * from the stream, since the drivers table may not have caught up yet. Ids that match
+     * no driver are ignored.
+     *
+     * @param positions latitude and longitude by driver id
+     */
+    public void addPositions(Map<String, double[]> positions) {
+        if (positions.isEmpty()) {
+            return;
+        }
+        for (Driver driver : driverRepository.findByDriverIdIn(new ArrayList<>(positions.keySet()))) {
+            double[] position = positions.get(driver.getDriverId());
+            entries.compute(driver.getDriverId(), (id, current) -> move(id, current, position[0], position[1],
+                    current != null ? current.available : isAvailable(driver)));
+        }
+    }
+
+    /**
+     * Takes the availability of a driver reloaded after a change on another instance. An
+     * indexed driver keeps its streamed position, which may be newer than the row's.
+     */
+    public void refresh(Driver driver) {
+        entries.compute(driver.getDriverId(), (id, current) -> {
+            if (current != null) {
+                return new Entry(current.latitude, current.longitude, current.cell, isAvailable(driver));
+            }
+            if (driver.getCurrentLatitude() == null || driver.getCurrentLongitude() == null) {
+                return null;
+            }
+            return move(id, null, driver.getCurrentLatitude(), driver.getCurrentLongitude(), isAvailable(driver));
+        });
+    }
+
+    public void updateAvailability(String driverId, boolean available) {
+        entries.computeIfPresent(driverId, (id, current) ->
+                new Entry(current.latitude, current.longitude, current.cell, available));
+    }
+
+    public void remove(String driverId) {
+        entries.computeIfPresent(driverId, (id, current) -> {
+            removeFromCell(current.cell, id);
+            return null;
+        });
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns up to {@code limit} drivers within {@code radiusKm}, closest first.
+     */
+    public List<NearbyDriver> findNearest(double latitude, double longitude, double radiusKm, int limit, boolean availableOnly) {
+        if (limit <= 0 || radiusKm <= 0) {
+            return List.of();
+        }
+
+        PriorityQueue<NearbyDriver> best = new PriorityQueue<>(
+                Comparator.comparingDouble(NearbyDriver::getDistanceKm).reversed());
+
+        int latIndex = cellIndex(latitude);
+        int lngIndex = cellIndex(longitude);
+        double cellKm = minCellKm(latitude);
+        int maxRing = (int) Math.ceil(radiusKm / cellKm) + 1;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            scanRing(latIndex, lngIndex, ring, latitude, longitude, radiusKm, limit, availableOnly, best);
+
+            // Every cell in ring + 1 is at least ring whole cells away from the query point
+            double nextRingMinKm = ring * cellKm;
+            if (nextRingMinKm > radiusKm) {
+                break;
+            }
+            if (best.size() >= limit && best.peek().getDistanceKm() <= nextRingMinKm) {
+                break;
+            }
+        }
+
+        List<NearbyDriver> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(NearbyDriver::getDistanceKm));
+        return result;
+    }
+
+    private void scanRing(int latIndex, int lngIndex, int ring, double latitude, double longitude,
+                          double radiusKm, int limit, boolean availableOnly, PriorityQueue<NearbyDriver> best) {
+        for (int dLat = -ring; dLat <= ring; dLat++) {
+            boolean edgeRow = Math.abs(dLat) == ring;
+            int step = edgeRow ? 1 : 2 * ring;
+            for (int dLng = -ring; dLng <= ring; dLng += step) {
+                Set<String> driverIds = cells.get(cellKey(latIndex + dLat, lngIndex + dLng));
+                if (driverIds == null) {
+                    continue;
+                }
+                for (String driverId : driverIds) {
+                    Entry entry = entries.get(driverId);
+                    if (entry == null || (availableOnly && !entry.available)) {
+                        continue;
+                    }
+                    double distance = GeoUtils.haversineKm(latitude, longitude, entry.latitude, entry.longitude);
+                    if (distance > radiusKm) {
+                        continue;
+                    }
+                    if (best.size() < limit) {
+                        best.add(new NearbyDriver(driverId, distance));
+                    } else if (distance < best.peek().getDistanceKm()) {
+                        best.poll();
+                        best.add(new NearbyDriver(driverId, distance));
+                    }
+                }
+            }
+        }
+    }
+
+    private void put(String driverId, double latitude, double longitude, boolean available) {
+        entries.compute(driverId, (id, current) -> move(id, current, latitude, longitude, available));
+    }
+
+    private Entry move(String driverId, Entry current, double latitude, double longitude, boolean available) {
+        long cell = cellKey(cellIndex(latitude), cellIndex(longitude));
+        if (current == null || current.cell != cell) {
+            if (current != null) {
+                removeFromCell(current.cell, driverId);
+            }
+            cells.computeIfAbsent(cell, key -> ConcurrentHashMap.newKeySet()).add(driverId);
+        }
+        return new Entry(latitude, longitude, cell, available);
+    }
+
+    private void removeFromCell(long cell, String driverId) {
+        Set<String> driverIds = cells.get(cell);
+        if (driverIds != null) {
+            driverIds.remove(driverId);
+        }
+    }
+
+    private int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / cellSizeDegrees);
+    }
+
+    private double minCellKm(double latitude) {
+        double cos = Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        return cellSizeDegrees * GeoUtils.KM_PER_DEGREE_LAT * cos;
+    }
+
+    private static long cellKey(int latIndex, int lngIndex) {
+        return ((long) latIndex << 32) | (lngIndex & 0xffffffffL);
+    }
+
+    private static boolean isAvailable(Driver driver) {
+        return Boolean.TRUE.equals(driver.getIsAvailable()) && driver.getStatus() == DriverStatus.ACTIVE;
+    }
+
+    @AllArgsConstructor
+    private static final class Entry {
+        private final double latitude;
+        private final double longitude;
+        private final long cell;
+        private final boolean available;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.driverservice.geo;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class NearbyDriver {
+    private final String driverId;
+    private final double distanceKm;
+}
@@ -0,0 +1,173 @@
+package com.example.driverservice.leaderboard;
+
+import com.example.driverservice.model.Driver;
+import com.example.driverservice.model.VehicleType;
+import com.example.driverservice.repository.DriverRepository;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Ranked views of the fleet by rating and by deliveries, overall and per vehicle type.
+ * Each view is a skip list ordered best first, so moving a driver costs O(log n) and
+ * reading the top k walks only k nodes. Ties on the primary metric are broken by the
+ * other one, then by driver id.
+ * <p>
+ * The views live in each instance's memory. Changes made on this instance are applied
+ * directly; changes made elsewhere are re-ranked by
+ * {@link com.example.driverservice.listener.DriverInvalidationListener}, so all instances
+ * converge on the same order.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DriverLeaderboard {
+
+    private static final Comparator<Rank> BEST_FIRST = Comparator
+            .comparingDouble((Rank rank) -> rank.primary).reversed()
+            .thenComparing(Comparator.comparingDouble((Rank rank) -> rank.secondary).reversed())
+            .thenComparing(rank -> rank.driverId);
+
+    private final DriverRepository driverRepository;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<LeaderboardMetric, NavigableSet<Rank>> overall = new EnumMap<>(LeaderboardMetric.class);
+    private final Map<LeaderboardMetric, Map<VehicleType, NavigableSet<Rank>>> byVehicleType = new EnumMap<>(LeaderboardMetric.class);
+
+    {
+        for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+            overall.put(metric, new ConcurrentSkipListSet<>(BEST_FIRST));
+            Map<VehicleType, NavigableSet<Rank>> views = new EnumMap<>(VehicleType.class);
+            for (VehicleType vehicleType : VehicleType.values()) {
+                views.put(vehicleType, new ConcurrentSkipListSet<>(BEST_FIRST));
+            }
+            byVehicleType.put(metric, views);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        driverRepository.findAll().forEach(this::upsert);
+        log.info("Driver leaderboard loaded with {} drivers", entries.size());
+    }
+
+    /**
+     * Re-ranks a driver after its rating, deliveries or vehicle type may have changed.
+     * Unchanged drivers are left in place.
+     */
+    public void upsert(Driver driver) {
+        Entry next = new Entry(driver.getVehicleType(),
+                driver.getRating() != null ? driver.getRating() : 0.0,
+                driver.getTotalDeliveries() != null ? driver.getTotalDeliveries() : 0);
+        entries.compute(driver.getDriverId(), (id, current) -> {
+            if (next.equals(current)) {
+                return current;
+            }
+            if (current != null) {
+                unlink(id, current);
+            }
+            link(id, next);
+            return next;
+        });
+    }
+
+    public void remove(String driverId) {
+        entries.computeIfPresent(driverId, (id, current) -> {
+            unlink(id, current);
+            return null;
+        });
+    }
+
+    /**
+     * Returns the ids of the best {@code limit} drivers, best first.
+     *
+     * @param vehicleType restricts the view to one vehicle type, or {@code null} for the whole fleet
+     */
+    public List<String> top(LeaderboardMetric metric, VehicleType vehicleType, int limit) {
+        NavigableSet<Rank> view = vehicleType != null ? byVehicleType.get(metric).get(vehicleType) : overall.get(metric);
+        List<String> driverIds = new ArrayList<>(Math.min(Math.max(limit, 0), 256));
+        Iterator<Rank> it = view.iterator();
+        while (driverIds.size() < limit && it.hasNext()) {
+            driverIds.add(it.next().driverId);
+        }
+        return driverIds;
+    }
+
+    /**
+     * @return the indexed rating of a driver, or {@code 0} if the driver is unknown
+     */
+    public double getRating(String driverId) {
+        Entry entry = entries.get(driverId);
+        return entry != null ? entry.rating : 0.0;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void link(String driverId, Entry entry) {
+        for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+            Rank rank = entry.rank(driverId, metric);
+            overall.get(metric).add(rank);
+            if (entry.vehicleType != null) {
+                byVehicleType.get(metric).get(entry.vehicleType).add(rank);
+            }
+        }
+    }
+
+    private void unlink(String driverId, Entry entry) {
+        for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+            Rank rank = entry.rank(driverId, metric);
+            overall.get(metric).remove(rank);
+            if (entry.vehicleType != null) {
+                byVehicleType.get(metric).get(entry.vehicleType).remove(rank);
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    private static final class Entry {
+        private final VehicleType vehicleType;
+        private final double rating;
+        private final int deliveries;
+
+        private Rank rank(String driverId, LeaderboardMetric metric) {
+            return metric == LeaderboardMetric.RATING
+                    ? new Rank(driverId, rating, deliveries)
+                    : new Rank(driverId, deliveries, rating);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry other)) {
+                return false;
+            }
+            return vehicleType == other.vehicleType && rating == other.rating && deliveries == other.deliveries;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (vehicleType != null ? vehicleType.hashCode() : 0) + Double.hashCode(rating)) + deliveries;
+        }
+    }
+
+    @AllArgsConstructor
+    private static final class Rank {
+        private final String driverId;
+        private final double primary;
+        private final double secondary;
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.driverservice.leaderboard;
+
+public enum LeaderboardMetric {
+    RATING,
+    DELIVERIES
+}
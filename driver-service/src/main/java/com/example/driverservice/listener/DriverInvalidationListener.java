@@ -0,0 +1,81 @@
+package com.example.driverservice.listener;
+
+import com.example.driverservice.cache.DriverCache;
+import com.example.driverservice.event.DriverInvalidationEvent;
+import com.example.driverservice.geo.DriverGeoIndex;
+import com.example.driverservice.leaderboard.DriverLeaderboard;
+import com.example.driverservice.repository.DriverRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Drops cached drivers changed by other instances and marks them stale. Every
+ * {@code driver.invalidations.refresh-interval-ms} the stale drivers are reloaded in one
+ * query and applied to the local leaderboard and proximity index, so a claim, release or
+ * status change made elsewhere also changes who this instance dispatches. Like the geo
+ * listener, every instance joins its own consumer group and only cares about changes
+ * from now on.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DriverInvalidationListener {
+
+    private final DriverCache driverCache;
+    private final DriverRepository driverRepository;
+    private final DriverLeaderboard leaderboard;
+    private final DriverGeoIndex geoIndex;
+    private final ObjectMapper objectMapper;
+
+    private final Set<String> stale = ConcurrentHashMap.newKeySet();
+
+    @KafkaListener(
+            topics = "${driver.kafka.topics.driver-invalidations}",
+            groupId = "driver-cache-${random.uuid}",
+            properties = "auto.offset.reset=latest")
+    public void consume(String message) {
+        try {
+            DriverInvalidationEvent event = objectMapper.readValue(message, DriverInvalidationEvent.class);
+            if (driverCache.onInvalidation(event)) {
+                stale.add(event.getDriverId());
+            }
+        } catch (Exception e) {
+            log.error("Error handling driver invalidation: {}", message, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${driver.invalidations.refresh-interval-ms:1000}")
+    public void refresh() {
+        if (stale.isEmpty()) {
+            return;
+        }
+        List<String> driverIds = new ArrayList<>(stale);
+        stale.removeAll(driverIds);
+        try {
+            Set<String> missing = new HashSet<>(driverIds);
+            driverRepository.findByDriverIdIn(driverIds).forEach(driver -> {
+                leaderboard.upsert(driver);
+                geoIndex.refresh(driver);
+                missing.remove(driver.getDriverId());
+            });
+            // Deleted elsewhere
+            missing.forEach(driverId -> {
+                leaderboard.remove(driverId);
+                geoIndex.remove(driverId);
+            });
+        } catch (Exception e) {
+            log.error("Failed to refresh {} drivers, retrying next cycle", driverIds.size(), e);
+            stale.addAll(driverIds);
+        }
+    }
+}
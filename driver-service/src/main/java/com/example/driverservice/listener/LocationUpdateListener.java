@@ -0,0 +1,98 @@
+package com.example.driverservice.listener;
+
+import com.example.driverservice.cache.DriverCache;
+import com.example.driverservice.event.LocationUpdateEvent;
+import com.example.driverservice.geo.DriverGeoIndex;
+import com.example.driverservice.repository.DriverPositionBatchRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps driver positions in step with tracking-service. Both listeners consume whole polls
+ * and keep only the latest fix per driver, since older fixes in the same poll would be
+ * overwritten immediately anyway.
+ * <ul>
+ *   <li>The in-memory geo index and driver cache live on every instance, so that listener
+ *       joins its own consumer group and starts from the latest offset.</li>
+ *   <li>The drivers table must be written once, so that listener shares a consumer group
+ *       and applies each poll as one batched UPDATE.</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LocationUpdateListener {
+
+    private final DriverGeoIndex geoIndex;
+    private final DriverCache driverCache;
+    private final DriverPositionBatchRepository positionRepository;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(
+            topics = "${driver.kafka.topics.location-updates}",
+            groupId = "driver-geo-${random.uuid}",
+            batch = "true",
+            properties = "auto.offset.reset=latest")
+    public void consume(List<String> messages) {
+        Map<String, double[]> unindexed = new HashMap<>();
+        for (LocationUpdateEvent event : latestPerDriver(messages)) {
+            if (!geoIndex.updatePosition(event.getDriverId(), event.getLatitude(), event.getLongitude())) {
+                unindexed.put(event.getDriverId(), new double[]{event.getLatitude(), event.getLongitude()});
+            }
+            driverCache.updatePosition(event);
+        }
+        try {
+            geoIndex.addPositions(unindexed);
+        } catch (Exception e) {
+            // Their next fix tries again
+            log.error("Failed to index {} new driver positions", unindexed.size(), e);
+        }
+    }
+
+    @KafkaListener(
+            topics = "${driver.kafka.topics.location-updates}",
+            groupId = "driver-positions",
+            batch = "true",
+            properties = "max.poll.records=${driver.positions.max-poll-records:1000}")
+    public void persist(List<String> messages) {
+        Collection<LocationUpdateEvent> positions = latestPerDriver(messages);
+        try {
+            positionRepository.updatePositions(positions);
+        } catch (Exception e) {
+            // The next fix of each driver rewrites its position, so a lost batch is not retried
+            log.error("Failed to persist {} driver positions", positions.size(), e);
+        }
+    }
+
+    private Collection<LocationUpdateEvent> latestPerDriver(List<String> messages) {
+        Map<String, LocationUpdateEvent> latest = new LinkedHashMap<>();
+        for (String message : messages) {
+            try {
+                LocationUpdateEvent event = objectMapper.readValue(message, LocationUpdateEvent.class);
+                if (event.getDriverId() == null || event.getLatitude() == null || event.getLongitude() == null) {
+                    continue;
+                }
+                latest.merge(event.getDriverId(), event, LocationUpdateListener::newer);
+            } catch (Exception e) {
+                log.error("Error handling location update: {}", message, e);
+            }
+        }
+        return latest.values();
+    }
+
+    private static LocationUpdateEvent newer(LocationUpdateEvent current, LocationUpdateEvent next) {
+        if (current.getTimestamp() != null && next.getTimestamp() != null && next.getTimestamp().isBefore(current.getTimestamp())) {
+            return current;
+        }
+        return next;
+    }
+}
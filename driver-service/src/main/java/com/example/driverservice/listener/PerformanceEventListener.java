@@ -0,0 +1,42 @@
+package com.example.driverservice.listener;
+
+import com.example.driverservice.event.DeliveryStatusEvent;
+import com.example.driverservice.event.LocationUpdateEvent;
+import com.example.driverservice.performance.PerformanceAggregator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds the performance rollups. Unlike the geo index, each event must be counted by one
+ * instance only, so these listeners share fixed consumer groups. location-updates is keyed
+ * by driver, so all fixes of a driver reach the same instance and distances chain up.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PerformanceEventListener {
+
+    private final PerformanceAggregator aggregator;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(topics = "${driver.kafka.topics.delivery-status}", groupId = "driver-performance-deliveries")
+    public void consumeDeliveryStatus(String message) {
+        try {
+            aggregator.onDeliveryStatus(objectMapper.readValue(message, DeliveryStatusEvent.class));
+        } catch (Exception e) {
+            log.error("Error handling delivery status: {}", message, e);
+        }
+    }
+
+    @KafkaListener(topics = "${driver.kafka.topics.location-updates}", groupId = "driver-performance-distance")
+    public void consumeLocation(String message) {
+        try {
+            aggregator.onLocation(objectMapper.readValue(message, LocationUpdateEvent.class));
+        } catch (Exception e) {
+            log.error("Error handling location update: {}", message, e);
+        }
+    }
+}
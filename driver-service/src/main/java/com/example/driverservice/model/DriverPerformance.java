@@ -9,7 +9,8 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "driver_performance")
+@Table(name = "driver_performance",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"driver_id", "period_start"}))
 @Data
 @Builder
 @NoArgsConstructor
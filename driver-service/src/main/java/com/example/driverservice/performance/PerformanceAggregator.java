@@ -0,0 +1,208 @@
+package com.example.driverservice.performance;
+
+import com.example.driverservice.cache.DriverCache;
+import com.example.driverservice.event.DeliveryStatusEvent;
+import com.example.driverservice.event.LocationUpdateEvent;
+import com.example.driverservice.geo.GeoUtils;
+import com.example.driverservice.leaderboard.DriverLeaderboard;
+import com.example.driverservice.repository.DriverPerformanceBatchRepository;
+import com.example.driverservice.repository.DriverRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Rolls delivery outcomes and driven distance up into tumbling per-driver windows of
+ * {@code driver.performance.window-minutes}. Events only touch in-memory deltas; a
+ * scheduled flush adds them onto the period rows in one batch, so the write rate follows
+ * the flush interval rather than the event rate.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PerformanceAggregator {
+
+    private static final Set<String> FAILED_STATUSES = Set.of("FAILED", "RETURNED");
+
+    private final DriverPerformanceBatchRepository batchRepository;
+    private final DriverRepository driverRepository;
+    private final DriverCache driverCache;
+    private final DriverLeaderboard leaderboard;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${driver.performance.window-minutes:60}")
+    private long windowMinutes;
+
+    @Value("${driver.performance.max-speed-kmh:200}")
+    private double maxSpeedKmh;
+
+    private final Map<DeltaKey, PerformanceDelta> deltas = new ConcurrentHashMap<>();
+    private final Map<String, LastFix> lastFixes = new ConcurrentHashMap<>();
+
+    // Terminal statuses can be published more than once per order; count each order once
+    private final Cache<String, Boolean> completedOrders = Caffeine.newBuilder()
+            .maximumSize(200_000)
+            .expireAfterWrite(Duration.ofDays(1))
+            .build();
+
+    private Timer flushLatency;
+    private Counter failedFlushes;
+
+    @PostConstruct
+    public void init() {
+        flushLatency = Timer.builder("driver.performance.flush.latency")
+                .description("Time spent writing one batch of performance deltas")
+                .register(meterRegistry);
+        failedFlushes = Counter.builder("driver.performance.flush.failed")
+                .description("Flushes whose deltas were put back after a failed write")
+                .register(meterRegistry);
+    }
+
+    public void onDeliveryStatus(DeliveryStatusEvent event) {
+        boolean delivered = "DELIVERED".equals(event.getStatus());
+        if (event.getDriverId() == null || event.getOrderId() == null
+                || (!delivered && !FAILED_STATUSES.contains(event.getStatus()))) {
+            return;
+        }
+        if (completedOrders.asMap().putIfAbsent(event.getOrderId(), Boolean.TRUE) != null) {
+            return;
+        }
+
+        LocalDateTime completedAt = event.getActualArrival() != null ? event.getActualArrival()
+                : event.getUpdatedAt() != null ? event.getUpdatedAt() : LocalDateTime.now();
+        if (delivered) {
+            LocalDateTime startedAt = event.getCreatedAt() != null ? event.getCreatedAt() : completedAt;
+            double minutes = Math.max(0, Duration.between(startedAt, completedAt).toSeconds() / 60.0);
+            update(event.getDriverId(), completedAt, delta -> delta.addDelivered(minutes));
+        } else {
+            update(event.getDriverId(), completedAt, PerformanceDelta::addFailed);
+        }
+    }
+
+    public void onLocation(LocationUpdateEvent event) {
+        if (event.getDriverId() == null || event.getLatitude() == null || event.getLongitude() == null
+                || event.getTimestamp() == null) {
+            return;
+        }
+        LastFix next = new LastFix(event.getLatitude(), event.getLongitude(), event.getTimestamp());
+        LastFix previous = lastFixes.put(event.getDriverId(), next);
+        if (previous == null || !next.time.isAfter(previous.time)) {
+            return;
+        }
+
+        double km = GeoUtils.haversineKm(previous.latitude, previous.longitude, next.latitude, next.longitude);
+        double hours = Duration.between(previous.time, next.time).toMillis() / 3_600_000.0;
+        // GPS jumps would otherwise show up as kilometres never driven
+        if (km > 0 && km / hours <= maxSpeedKmh) {
+            update(event.getDriverId(), next.time, delta -> delta.addDistance(km));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${driver.performance.flush-interval-ms:10000}")
+    public void flush() {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<PerformanceDelta> batch = new ArrayList<>(deltas.size());
+        for (DeltaKey key : List.copyOf(deltas.keySet())) {
+            PerformanceDelta delta = deltas.remove(key);
+            if (delta != null) {
+                batch.add(delta);
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            batchRepository.apply(batch, Timestamp.valueOf(LocalDateTime.now()));
+        } catch (Exception e) {
+            failedFlushes.increment();
+            log.error("Failed to flush {} performance deltas, retrying next cycle", batch.size(), e);
+            batch.forEach(this::putBack);
+            return;
+        } finally {
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        // Delivery counts feed the leaderboard's deliveries view. Only the instance that
+        // consumed the events flushes them, so the others learn of the new counts from the
+        // invalidations evictAll publishes and re-rank in DriverInvalidationListener
+        List<String> rerank = batch.stream()
+                .filter(delta -> delta.getDeliveries() > 0)
+                .map(PerformanceDelta::getDriverId)
+                .distinct()
+                .toList();
+        if (!rerank.isEmpty()) {
+            driverCache.evictAll(rerank);
+            try {
+                driverRepository.findByDriverIdIn(rerank).forEach(leaderboard::upsert);
+            } catch (Exception e) {
+                log.error("Failed to re-rank {} drivers after a performance flush", rerank.size(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void update(String driverId, LocalDateTime time, Consumer<PerformanceDelta> change) {
+        LocalDateTime periodStart = windowStart(time);
+        deltas.compute(new DeltaKey(driverId, periodStart), (key, delta) -> {
+            PerformanceDelta target = delta != null ? delta
+                    : new PerformanceDelta(driverId, periodStart, periodStart.plusMinutes(windowMinutes));
+            change.accept(target);
+            return target;
+        });
+    }
+
+    private void putBack(PerformanceDelta failed) {
+        deltas.merge(new DeltaKey(failed.getDriverId(), failed.getPeriodStart()), failed, (newer, older) -> {
+            newer.merge(older);
+            return newer;
+        });
+    }
+
+    private LocalDateTime windowStart(LocalDateTime time) {
+        long windowSeconds = windowMinutes * 60;
+        long epochSeconds = time.toEpochSecond(ZoneOffset.UTC);
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochSeconds, windowSeconds) * windowSeconds, 0, ZoneOffset.UTC);
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class DeltaKey {
+        private final String driverId;
+        private final LocalDateTime periodStart;
+    }
+
+    @AllArgsConstructor
+    private static final class LastFix {
+        private final double latitude;
+        private final double longitude;
+        private final LocalDateTime time;
+    }
+}
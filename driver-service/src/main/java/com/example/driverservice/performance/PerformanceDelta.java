@@ -0,0 +1,54 @@
+package com.example.driverservice.performance;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * What one driver did within one window since the last flush. Deltas are added to the
+ * stored period row, so a window that spans several flushes is written several times.
+ */
+@Getter
+public class PerformanceDelta {
+    private final String driverId;
+    private final LocalDateTime periodStart;
+    private final LocalDateTime periodEnd;
+    private int deliveries;
+    private int successfulDeliveries;
+    private int failedDeliveries;
+    private double averageDeliveryTime; // in minutes, over the successful deliveries of this delta
+    private double distance; // in kilometers
+
+    PerformanceDelta(String driverId, LocalDateTime periodStart, LocalDateTime periodEnd) {
+        this.driverId = driverId;
+        this.periodStart = periodStart;
+        this.periodEnd = periodEnd;
+    }
+
+    void addDelivered(double minutes) {
+        deliveries++;
+        successfulDeliveries++;
+        averageDeliveryTime += (minutes - averageDeliveryTime) / successfulDeliveries;
+    }
+
+    void addFailed() {
+        deliveries++;
+        failedDeliveries++;
+    }
+
+    void addDistance(double km) {
+        distance += km;
+    }
+
+    void merge(PerformanceDelta other) {
+        int successful = successfulDeliveries + other.successfulDeliveries;
+        if (successful > 0) {
+            averageDeliveryTime = (averageDeliveryTime * successfulDeliveries
+                    + other.averageDeliveryTime * other.successfulDeliveries) / successful;
+        }
+        deliveries += other.deliveries;
+        successfulDeliveries = successful;
+        failedDeliveries += other.failedDeliveries;
+        distance += other.distance;
+    }
+}
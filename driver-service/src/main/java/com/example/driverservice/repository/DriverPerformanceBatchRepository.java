@@ -0,0 +1,105 @@
+package com.example.driverservice.repository;
+
+import com.example.driverservice.performance.PerformanceDelta;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC batch writer for the performance rollups. Each delta is added onto its period row
+ * with an upsert, and the lifetime counters on the driver row are bumped in the same
+ * transaction so the stats endpoints can read them without aggregating.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DriverPerformanceBatchRepository {
+
+    // Averages are merged weighted by successful deliveries; SET expressions see the old row
+    private static final String UPSERT_PERIOD_SQL =
+            "INSERT INTO driver_performance (driver_id, period_start, period_end, total_deliveries, successful_deliveries, "
+                    + "failed_deliveries, average_delivery_time, total_distance, average_rating, earnings, fuel_consumption, "
+                    + "maintenance_hours, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 5.0, 0, 0, 0, ?) "
+                    + "ON CONFLICT (driver_id, period_start) DO UPDATE SET "
+                    + "total_deliveries = driver_performance.total_deliveries + EXCLUDED.total_deliveries, "
+                    + "successful_deliveries = driver_performance.successful_deliveries + EXCLUDED.successful_deliveries, "
+                    + "failed_deliveries = driver_performance.failed_deliveries + EXCLUDED.failed_deliveries, "
+                    + "average_delivery_time = CASE WHEN driver_performance.successful_deliveries + EXCLUDED.successful_deliveries = 0 "
+                    + "THEN driver_performance.average_delivery_time "
+                    + "ELSE (COALESCE(driver_performance.average_delivery_time, 0) * driver_performance.successful_deliveries "
+                    + "+ EXCLUDED.average_delivery_time * EXCLUDED.successful_deliveries) "
+                    + "/ (driver_performance.successful_deliveries + EXCLUDED.successful_deliveries) END, "
+                    + "total_distance = COALESCE(driver_performance.total_distance, 0) + EXCLUDED.total_distance";
+
+    private static final String UPDATE_DRIVER_SQL =
+            "UPDATE drivers SET "
+                    + "average_delivery_time = CASE WHEN COALESCE(successful_deliveries, 0) + ? = 0 THEN average_delivery_time "
+                    + "ELSE (COALESCE(average_delivery_time, 0) * COALESCE(successful_deliveries, 0) + ? * ?) "
+                    + "/ (COALESCE(successful_deliveries, 0) + ?) END, "
+                    + "total_deliveries = COALESCE(total_deliveries, 0) + ?, "
+                    + "successful_deliveries = COALESCE(successful_deliveries, 0) + ?, "
+                    + "updated_at = ? "
+                    + "WHERE driver_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void apply(Collection<PerformanceDelta> deltas, Timestamp now) {
+        List<PerformanceDelta> periods = List.copyOf(deltas);
+        jdbcTemplate.batchUpdate(UPSERT_PERIOD_SQL, periods, periods.size(), (ps, delta) -> {
+            ps.setString(1, delta.getDriverId());
+            ps.setTimestamp(2, Timestamp.valueOf(delta.getPeriodStart()));
+            ps.setTimestamp(3, Timestamp.valueOf(delta.getPeriodEnd()));
+            ps.setInt(4, delta.getDeliveries());
+            ps.setInt(5, delta.getSuccessfulDeliveries());
+            ps.setInt(6, delta.getFailedDeliveries());
+            ps.setDouble(7, delta.getAverageDeliveryTime());
+            ps.setDouble(8, delta.getDistance());
+            ps.setTimestamp(9, now);
+        });
+
+        List<DriverTotals> drivers = periods.stream()
+                .filter(delta -> delta.getDeliveries() > 0)
+                .collect(Collectors.groupingBy(PerformanceDelta::getDriverId))
+                .entrySet().stream()
+                .map(DriverTotals::of)
+                .toList();
+        jdbcTemplate.batchUpdate(UPDATE_DRIVER_SQL, drivers, drivers.size(), (ps, totals) -> {
+            ps.setInt(1, totals.successful);
+            ps.setDouble(2, totals.averageDeliveryTime);
+            ps.setInt(3, totals.successful);
+            ps.setInt(4, totals.successful);
+            ps.setInt(5, totals.deliveries);
+            ps.setInt(6, totals.successful);
+            ps.setTimestamp(7, now);
+            ps.setString(8, totals.driverId);
+        });
+    }
+
+    @AllArgsConstructor
+    private static final class DriverTotals {
+        private final String driverId;
+        private final int deliveries;
+        private final int successful;
+        private final double averageDeliveryTime;
+
+        private static DriverTotals of(Map.Entry<String, List<PerformanceDelta>> entry) {
+            int deliveries = 0;
+            int successful = 0;
+            double minutes = 0;
+            for (PerformanceDelta delta : entry.getValue()) {
+                deliveries += delta.getDeliveries();
+                successful += delta.getSuccessfulDeliveries();
+                minutes += delta.getAverageDeliveryTime() * delta.getSuccessfulDeliveries();
+            }
+            return new DriverTotals(entry.getKey(), deliveries, successful, successful > 0 ? minutes / successful : 0);
+        }
+    }
+}
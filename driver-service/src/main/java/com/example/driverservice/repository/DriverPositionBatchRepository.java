@@ -0,0 +1,40 @@
+package com.example.driverservice.repository;
+
+import com.example.driverservice.event.LocationUpdateEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC batch writer for driver positions synced from tracking-service. Only the position
+ * columns are touched, so a concurrent status or availability change is never overwritten.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DriverPositionBatchRepository {
+
+    private static final String UPDATE_POSITION_SQL =
+            "UPDATE drivers SET current_latitude = ?, current_longitude = ?, last_active = ?, updated_at = ? WHERE driver_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void updatePositions(Collection<LocationUpdateEvent> positions) {
+        if (positions.isEmpty()) {
+            return;
+        }
+        List<LocationUpdateEvent> batch = List.copyOf(positions);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPDATE_POSITION_SQL, batch, batch.size(), (ps, position) -> {
+            ps.setDouble(1, position.getLatitude());
+            ps.setDouble(2, position.getLongitude());
+            ps.setTimestamp(3, position.getTimestamp() != null ? Timestamp.valueOf(position.getTimestamp()) : now);
+            ps.setTimestamp(4, now);
+            ps.setString(5, position.getDriverId());
+        });
+    }
+}
@@ -4,10 +4,13 @@ import com.example.driverservice.model.Driver;
 import com.example.driverservice.model.DriverStatus;
 import com.example.driverservice.model.VehicleType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +19,8 @@ public interface DriverRepository extends JpaRepository<Driver, Long> {
     
     Optional<Driver> findByDriverId(String driverId);
     
+    List<Driver> findByDriverIdIn(List<String> driverIds);
+    
     Optional<Driver> findByUserId(String userId);
     
     List<Driver> findByStatus(DriverStatus status);
@@ -37,6 +42,69 @@ public interface DriverRepository extends JpaRepository<Driver, Long> {
     List<Driver> findDriversInArea(@Param("minLat") Double minLat, @Param("maxLat") Double maxLat,
                                    @Param("minLng") Double minLng, @Param("maxLng") Double maxLng);
     
+    /**
+     * Compare-and-set claim: moves the driver to ON_DELIVERY only if it is still available.
+     *
+     * @return 1 if this call claimed the driver, 0 if someone else got there first
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Driver d SET d.status = 'ON_DELIVERY', d.isAvailable = false, d.lastActive = :now, d.updatedAt = :now " +
+           "WHERE d.driverId = :driverId AND d.isAvailable = true AND d.status = 'ACTIVE'")
+    int claimIfAvailable(@Param("driverId") String driverId, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Driver d SET d.currentLatitude = :latitude, d.currentLongitude = :longitude, d.lastActive = :now, d.updatedAt = :now " +
+           "WHERE d.driverId = :driverId")
+    int updatePosition(@Param("driverId") String driverId, @Param("latitude") Double latitude,
+                       @Param("longitude") Double longitude, @Param("now") LocalDateTime now);
+    
+    // The writes below touch only the columns they change, so a concurrent claim or rollup
+    // is never written back over by a stale copy of the row
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Driver d SET d.firstName = :firstName, d.lastName = :lastName, d.phoneNumber = :phoneNumber, " +
+           "d.email = :email, d.licenseNumber = :licenseNumber, d.vehicleType = :vehicleType, " +
+           "d.vehicleNumber = :vehicleNumber, d.status = COALESCE(:status, d.status), d.updatedAt = :now " +
+           "WHERE d.driverId = :driverId")
+    int updateProfile(@Param("driverId") String driverId, @Param("firstName") String firstName,
+                      @Param("lastName") String lastName, @Param("phoneNumber") String phoneNumber,
+                      @Param("email") String email, @Param("licenseNumber") String licenseNumber,
+                      @Param("vehicleType") VehicleType vehicleType, @Param("vehicleNumber") String vehicleNumber,
+                      @Param("status") DriverStatus status, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Driver d SET d.isAvailable = :available, d.lastActive = :now, d.updatedAt = :now " +
+           "WHERE d.driverId = :driverId")
+    int updateAvailability(@Param("driverId") String driverId, @Param("available") Boolean available,
+                           @Param("now") LocalDateTime now);
+    
+    /**
+     * @param available new availability, or {@code null} to leave it unchanged
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Driver d SET d.status = :status, d.isAvailable = COALESCE(:available, d.isAvailable), d.updatedAt = :now " +
+           "WHERE d.driverId = :driverId")
+    int updateStatus(@Param("driverId") String driverId, @Param("status") DriverStatus status,
+                     @Param("available") Boolean available, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Driver d SET d.status = 'ACTIVE', d.isAvailable = true, d.lastActive = :now, d.updatedAt = :now " +
+           "WHERE d.driverId = :driverId")
+    int release(@Param("driverId") String driverId, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Driver d SET d.vehicleType = :vehicleType, d.vehicleNumber = :vehicleNumber, d.updatedAt = :now " +
+           "WHERE d.driverId = :driverId")
+    int updateVehicle(@Param("driverId") String driverId, @Param("vehicleType") VehicleType vehicleType,
+                      @Param("vehicleNumber") String vehicleNumber, @Param("now") LocalDateTime now);
+    
     boolean existsByDriverId(String driverId);
     
     boolean existsByUserId(String userId);
@@ -1,8 +1,11 @@
 package com.example.driverservice.service;
 
+import com.example.driverservice.dto.DispatchRequest;
+import com.example.driverservice.dto.DispatchResult;
 import com.example.driverservice.dto.DriverPerformanceResponse;
 import com.example.driverservice.dto.DriverRequest;
 import com.example.driverservice.dto.DriverResponse;
+import com.example.driverservice.leaderboard.LeaderboardMetric;
 import com.example.driverservice.model.DriverStatus;
 import com.example.driverservice.model.VehicleType;
 
@@ -27,7 +30,9 @@ public interface DriverService {
     // Driver assignment
     DriverResponse assignDriverToOrder(String driverId, String orderId);
     DriverResponse unassignDriverFromOrder(String driverId, String orderId);
+    List<DispatchResult> dispatchOrders(List<DispatchRequest> orders);
     List<DriverResponse> findDriversNearLocation(Double latitude, Double longitude, Double radius);
+    List<DriverResponse> findNearestAvailableDrivers(Double latitude, Double longitude, Double radius, Integer limit);
     
     // Performance tracking
     DriverPerformanceResponse createPerformanceRecord(String driverId, LocalDateTime periodStart, LocalDateTime periodEnd);
@@ -38,7 +43,7 @@ public interface DriverService {
     Double getDriverRating(String driverId);
     Integer getDriverTotalDeliveries(String driverId);
     Double getDriverTotalEarnings(String driverId);
-    List<DriverResponse> getTopPerformers(Integer limit);
+    List<DriverResponse> getTopPerformers(Integer limit, VehicleType vehicleType, LeaderboardMetric metric);
     
     // Vehicle management
     List<DriverResponse> getDriversByVehicleType(VehicleType vehicleType);
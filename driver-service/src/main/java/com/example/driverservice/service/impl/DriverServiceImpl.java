@@ -1,8 +1,16 @@
 package com.example.driverservice.service.impl;
 
+import com.example.driverservice.cache.DriverCache;
+import com.example.driverservice.dispatch.DispatchEngine;
+import com.example.driverservice.dto.DispatchRequest;
+import com.example.driverservice.dto.DispatchResult;
 import com.example.driverservice.dto.DriverPerformanceResponse;
 import com.example.driverservice.dto.DriverRequest;
 import com.example.driverservice.dto.DriverResponse;
+import com.example.driverservice.geo.DriverGeoIndex;
+import com.example.driverservice.geo.NearbyDriver;
+import com.example.driverservice.leaderboard.DriverLeaderboard;
+import com.example.driverservice.leaderboard.LeaderboardMetric;
 import com.example.driverservice.model.Driver;
 import com.example.driverservice.model.DriverPerformance;
 import com.example.driverservice.model.DriverStatus;
@@ -12,12 +20,20 @@ import com.example.driverservice.repository.DriverRepository;
 import com.example.driverservice.service.DriverService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,7 +41,14 @@ import java.util.UUID;
 public class DriverServiceImpl implements DriverService {
     
     private final DriverRepository driverRepository;
+    private final DriverCache driverCache;
     private final DriverPerformanceRepository performanceRepository;
+    private final DriverGeoIndex geoIndex;
+    private final DriverLeaderboard leaderboard;
+    private final DispatchEngine dispatchEngine;
+    
+    @Value("${driver.dispatch.max-batch-orders:1000}")
+    private int maxDispatchBatch;
     
     @Override
     public DriverResponse createDriver(DriverRequest request) {
@@ -56,15 +79,21 @@ public class DriverServiceImpl implements DriverService {
                 .build();
         
         Driver savedDriver = driverRepository.save(driver);
+        driverCache.put(savedDriver);
+        geoIndex.upsert(savedDriver);
+        leaderboard.upsert(savedDriver);
         return mapToDriverResponse(savedDriver);
     }
     
     @Override
     public DriverResponse updateDriver(String driverId, DriverRequest request) {
-        Optional<Driver> optional = driverRepository.findByDriverId(driverId);
-        if (optional.isPresent()) {
-            Driver driver = optional.get();
-            
+        LocalDateTime now = LocalDateTime.now();
+        if (driverRepository.updateProfile(driverId, request.getFirstName(), request.getLastName(),
+                request.getPhoneNumber(), request.getEmail(), request.getLicenseNumber(),
+                request.getVehicleType(), request.getVehicleNumber(), request.getStatus(), now) == 0) {
+            throw new RuntimeException("Driver not found: " + driverId);
+        }
+        Driver savedDriver = applied(driverId, driver -> {
             driver.setFirstName(request.getFirstName());
             driver.setLastName(request.getLastName());
             driver.setPhoneNumber(request.getPhoneNumber());
@@ -75,16 +104,15 @@ public class DriverServiceImpl implements DriverService {
             if (request.getStatus() != null) {
                 driver.setStatus(request.getStatus());
             }
-            
-            Driver savedDriver = driverRepository.save(driver);
-            return mapToDriverResponse(savedDriver);
-        }
-        throw new RuntimeException("Driver not found: " + driverId);
+            driver.setUpdatedAt(now);
+        });
+        leaderboard.upsert(savedDriver);
+        return mapToDriverResponse(savedDriver);
     }
     
     @Override
     public DriverResponse getDriver(String driverId) {
-        Optional<Driver> optional = driverRepository.findByDriverId(driverId);
+        Optional<Driver> optional = driverCache.find(driverId);
         return optional.map(this::mapToDriverResponse).orElse(null);
     }
     
@@ -100,6 +128,9 @@ public class DriverServiceImpl implements DriverService {
         Optional<Driver> optional = driverRepository.findByDriverId(driverId);
         if (optional.isPresent()) {
             driverRepository.delete(optional.get());
+            driverCache.evict(driverId);
+            geoIndex.remove(driverId);
+            leaderboard.remove(driverId);
         } else {
             throw new RuntimeException("Driver not found: " + driverId);
         }
@@ -114,95 +145,99 @@ public class DriverServiceImpl implements DriverService {
     
     @Override
     public DriverResponse updateDriverAvailability(String driverId, Boolean isAvailable) {
-        Optional<Driver> optional = driverRepository.findByDriverId(driverId);
-        if (optional.isPresent()) {
-            Driver driver = optional.get();
-            driver.setIsAvailable(isAvailable);
-            driver.setLastActive(LocalDateTime.now());
-            
-            Driver savedDriver = driverRepository.save(driver);
-            return mapToDriverResponse(savedDriver);
+        LocalDateTime now = LocalDateTime.now();
+        if (driverRepository.updateAvailability(driverId, isAvailable, now) == 0) {
+            throw new RuntimeException("Driver not found: " + driverId);
         }
-        throw new RuntimeException("Driver not found: " + driverId);
+        return mapToDriverResponse(applied(driverId, driver -> {
+            driver.setIsAvailable(isAvailable);
+            driver.setLastActive(now);
+            driver.setUpdatedAt(now);
+        }));
     }
     
     @Override
     public DriverResponse updateDriverLocation(String driverId, Double latitude, Double longitude) {
-        Optional<Driver> optional = driverRepository.findByDriverId(driverId);
-        if (optional.isPresent()) {
-            Driver driver = optional.get();
+        LocalDateTime now = LocalDateTime.now();
+        if (driverRepository.updatePosition(driverId, latitude, longitude, now) == 0) {
+            throw new RuntimeException("Driver not found: " + driverId);
+        }
+        return mapToDriverResponse(applied(driverId, driver -> {
             driver.setCurrentLatitude(latitude);
             driver.setCurrentLongitude(longitude);
-            driver.setLastActive(LocalDateTime.now());
-            
-            Driver savedDriver = driverRepository.save(driver);
-            return mapToDriverResponse(savedDriver);
-        }
-        throw new RuntimeException("Driver not found: " + driverId);
+            driver.setLastActive(now);
+            driver.setUpdatedAt(now);
+        }));
     }
     
     @Override
     public DriverResponse updateDriverStatus(String driverId, DriverStatus status) {
-        Optional<Driver> optional = driverRepository.findByDriverId(driverId);
-        if (optional.isPresent()) {
-            Driver driver = optional.get();
+        Boolean available = null;
+        if (status == DriverStatus.ACTIVE) {
+            available = true;
+        } else if (status == DriverStatus.INACTIVE || status == DriverStatus.SUSPENDED) {
+            available = false;
+        }
+        
+        Boolean nextAvailable = available;
+        LocalDateTime now = LocalDateTime.now();
+        if (driverRepository.updateStatus(driverId, status, available, now) == 0) {
+            throw new RuntimeException("Driver not found: " + driverId);
+        }
+        return mapToDriverResponse(applied(driverId, driver -> {
             driver.setStatus(status);
-            
-            if (status == DriverStatus.ACTIVE) {
-                driver.setIsAvailable(true);
-            } else if (status == DriverStatus.INACTIVE || status == DriverStatus.SUSPENDED) {
-                driver.setIsAvailable(false);
+            if (nextAvailable != null) {
+                driver.setIsAvailable(nextAvailable);
             }
-            
-            Driver savedDriver = driverRepository.save(driver);
-            return mapToDriverResponse(savedDriver);
-        }
-        throw new RuntimeException("Driver not found: " + driverId);
+            driver.setUpdatedAt(now);
+        }));
     }
     
     @Override
     public DriverResponse assignDriverToOrder(String driverId, String orderId) {
-        Optional<Driver> optional = driverRepository.findByDriverId(driverId);
-        if (optional.isPresent()) {
-            Driver driver = optional.get();
-            driver.setStatus(DriverStatus.ON_DELIVERY);
-            driver.setIsAvailable(false);
-            driver.setLastActive(LocalDateTime.now());
-            
-            Driver savedDriver = driverRepository.save(driver);
-            return mapToDriverResponse(savedDriver);
+        // Claim first so two dispatchers can never both assign the same driver
+        if (dispatchEngine.claim(driverId)) {
+            return driverCache.find(driverId)
+                    .map(this::mapToDriverResponse)
+                    .orElseThrow(() -> new RuntimeException("Driver not found: " + driverId));
         }
-        throw new RuntimeException("Driver not found: " + driverId);
+        if (!driverRepository.existsByDriverId(driverId)) {
+            throw new RuntimeException("Driver not found: " + driverId);
+        }
+        throw new RuntimeException("Driver is not available: " + driverId);
     }
     
     @Override
     public DriverResponse unassignDriverFromOrder(String driverId, String orderId) {
-        Optional<Driver> optional = driverRepository.findByDriverId(driverId);
-        if (optional.isPresent()) {
-            Driver driver = optional.get();
+        LocalDateTime now = LocalDateTime.now();
+        if (driverRepository.release(driverId, now) == 0) {
+            throw new RuntimeException("Driver not found: " + driverId);
+        }
+        return mapToDriverResponse(applied(driverId, driver -> {
             driver.setStatus(DriverStatus.ACTIVE);
             driver.setIsAvailable(true);
-            driver.setLastActive(LocalDateTime.now());
-            
-            Driver savedDriver = driverRepository.save(driver);
-            return mapToDriverResponse(savedDriver);
+            driver.setLastActive(now);
+            driver.setUpdatedAt(now);
+        }));
+    }
+    
+    @Override
+    public List<DispatchResult> dispatchOrders(List<DispatchRequest> orders) {
+        if (orders.size() > maxDispatchBatch) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxDispatchBatch + " orders can be dispatched per request");
         }
-        throw new RuntimeException("Driver not found: " + driverId);
+        return dispatchEngine.dispatch(orders);
     }
     
     @Override
     public List<DriverResponse> findDriversNearLocation(Double latitude, Double longitude, Double radius) {
-        // Convert radius from km to degrees (approximate)
-        double radiusInDegrees = radius / 111.0; // 1 degree ≈ 111 km
-        
-        double minLat = latitude - radiusInDegrees;
-        double maxLat = latitude + radiusInDegrees;
-        double minLng = longitude - radiusInDegrees;
-        double maxLng = longitude + radiusInDegrees;
-        
-        return driverRepository.findDriversInArea(minLat, maxLat, minLng, maxLng).stream()
-                .map(this::mapToDriverResponse)
-                .toList();
+        return resolveDrivers(geoIndex.findNearest(latitude, longitude, radius, Integer.MAX_VALUE, false));
+    }
+    
+    @Override
+    public List<DriverResponse> findNearestAvailableDrivers(Double latitude, Double longitude, Double radius, Integer limit) {
+        return resolveDrivers(geoIndex.findNearest(latitude, longitude, radius, limit, true));
     }
     
     @Override
@@ -249,7 +284,10 @@ public class DriverServiceImpl implements DriverService {
     
     @Override
     public Integer getDriverTotalDeliveries(String driverId) {
-        return performanceRepository.findTotalDeliveriesByDriverId(driverId).orElse(0);
+        // Kept current by the performance rollups, no need to sum the periods
+        return driverCache.find(driverId)
+                .map(Driver::getTotalDeliveries)
+                .orElse(0);
     }
     
     @Override
@@ -258,12 +296,8 @@ public class DriverServiceImpl implements DriverService {
     }
     
     @Override
-    public List<DriverResponse> getTopPerformers(Integer limit) {
-        return driverRepository.findAll().stream()
-                .sorted((d1, d2) -> Double.compare(d2.getRating(), d1.getRating()))
-                .limit(limit)
-                .map(this::mapToDriverResponse)
-                .toList();
+    public List<DriverResponse> getTopPerformers(Integer limit, VehicleType vehicleType, LeaderboardMetric metric) {
+        return resolveDriverIds(leaderboard.top(metric, vehicleType, limit));
     }
     
     @Override
@@ -275,16 +309,47 @@ public class DriverServiceImpl implements DriverService {
     
     @Override
     public DriverResponse updateVehicleInfo(String driverId, VehicleType vehicleType, String vehicleNumber) {
-        Optional<Driver> optional = driverRepository.findByDriverId(driverId);
-        if (optional.isPresent()) {
-            Driver driver = optional.get();
+        LocalDateTime now = LocalDateTime.now();
+        if (driverRepository.updateVehicle(driverId, vehicleType, vehicleNumber, now) == 0) {
+            throw new RuntimeException("Driver not found: " + driverId);
+        }
+        Driver savedDriver = applied(driverId, driver -> {
             driver.setVehicleType(vehicleType);
             driver.setVehicleNumber(vehicleNumber);
-            
-            Driver savedDriver = driverRepository.save(driver);
-            return mapToDriverResponse(savedDriver);
+            driver.setUpdatedAt(now);
+        });
+        leaderboard.upsert(savedDriver);
+        return mapToDriverResponse(savedDriver);
+    }
+    
+    /**
+     * Mirrors a column-targeted UPDATE in the cache and the proximity index. The result is
+     * served from the cache, which only reads the row back if it had no copy.
+     */
+    private Driver applied(String driverId, Consumer<Driver> change) {
+        driverCache.apply(driverId, change);
+        Driver driver = driverCache.find(driverId)
+                .orElseThrow(() -> new RuntimeException("Driver not found: " + driverId));
+        geoIndex.upsert(driver);
+        return driver;
+    }
+    
+    private List<DriverResponse> resolveDrivers(List<NearbyDriver> nearby) {
+        return resolveDriverIds(nearby.stream().map(NearbyDriver::getDriverId).toList());
+    }
+    
+    private List<DriverResponse> resolveDriverIds(List<String> driverIds) {
+        if (driverIds.isEmpty()) {
+            return List.of();
         }
-        throw new RuntimeException("Driver not found: " + driverId);
+        // Keep the ordering from the index
+        Map<String, Driver> drivers = driverRepository.findByDriverIdIn(driverIds).stream()
+                .collect(Collectors.toMap(Driver::getDriverId, Function.identity()));
+        return driverIds.stream()
+                .map(drivers::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToDriverResponse)
+                .toList();
     }
     
     private String generateDriverId() {
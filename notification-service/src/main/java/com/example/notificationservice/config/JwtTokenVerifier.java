@@ -0,0 +1,133 @@
+package com.example.notificationservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Verifies bearer tokens locally (signature and expiry) and caches the resulting
+ * principal per token, so repeated requests with the same token skip both parsing and
+ * the user lookup. The principal is built from the {@code role} claim; tokens without
+ * it fall back to one {@link UserDetailsService} lookup per token.
+ * <p>
+ * With {@code jwt.trust-gateway-headers} enabled, the identity headers set by the
+ * api-gateway after it verified the token are accepted as-is. Only enable this when
+ * the service is reachable exclusively through the gateway.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JwtTokenVerifier {
+
+    public static final String GATEWAY_USERNAME_HEADER = "X-User-Name";
+    public static final String GATEWAY_ROLE_HEADER = "X-User-Role";
+
+    private final JwtService jwtService;
+    private final UserDetailsService userDetailsService;
+
+    @Value("${jwt.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${jwt.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${jwt.trust-gateway-headers:false}")
+    private boolean trustGatewayHeaders;
+
+    private Cache<String, VerifiedToken> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * @return the authenticated principal, or {@code null} if the token is invalid or expired
+     */
+    public UserDetails verify(String token) {
+        VerifiedToken cached = cache.getIfPresent(token);
+        if (cached != null) {
+            if (cached.expiresAt > System.currentTimeMillis()) {
+                return cached.userDetails;
+            }
+            cache.invalidate(token);
+            return null;
+        }
+
+        Claims claims;
+        try {
+            claims = jwtService.extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Rejected JWT: {}", e.getMessage());
+            return null;
+        }
+
+        UserDetails userDetails = toUserDetails(claims);
+        if (userDetails != null) {
+            long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+            cache.put(token, new VerifiedToken(userDetails, expiresAt));
+        }
+        return userDetails;
+    }
+
+    /**
+     * @return the principal forwarded by the gateway, or {@code null} if gateway headers
+     * are not trusted or absent
+     */
+    public UserDetails fromGatewayHeaders(HttpServletRequest request) {
+        if (!trustGatewayHeaders) {
+            return null;
+        }
+        String username = request.getHeader(GATEWAY_USERNAME_HEADER);
+        if (username == null || username.isBlank()) {
+            return null;
+        }
+        String role = request.getHeader(GATEWAY_ROLE_HEADER);
+        return User.withUsername(username)
+                .password("")
+                .authorities(role != null ? new String[]{"ROLE_" + role} : new String[0])
+                .build();
+    }
+
+    private UserDetails toUserDetails(Claims claims) {
+        String username = claims.getSubject();
+        if (username == null) {
+            return null;
+        }
+        String role = claims.get("role", String.class);
+        if (role != null) {
+            return User.withUsername(username)
+                    .password("")
+                    .authorities("ROLE_" + role)
+                    .build();
+        }
+        try {
+            return userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+
+    @AllArgsConstructor
+    private static final class VerifiedToken {
+        private final UserDetails userDetails;
+        private final long expiresAt;
+    }
+}
@@ -1,11 +1,17 @@
 package com.example.orderservice.controller;
 
 import com.example.orderservice.model.Order;
+import com.example.orderservice.request.OrderRequest;
+import com.example.orderservice.response.ApiResponse;
+import com.example.orderservice.response.BulkOrderResponse;
 import com.example.orderservice.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
@@ -26,4 +32,15 @@ public class OrderController {
     public Order placeOrder(@RequestBody Order order) {
         return orderService.createOrder(order);
     }
+
+    @PostMapping("/bulk")
+    public ApiResponse<BulkOrderResponse> placeOrders(@RequestBody List<OrderRequest> orders) {
+        BulkOrderResponse result = orderService.createOrders(orders);
+        return ApiResponse.<BulkOrderResponse>builder()
+                .status(200)
+                .message("Bulk order processed")
+                .data(result)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
 }
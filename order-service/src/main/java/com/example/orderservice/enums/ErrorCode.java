@@ -12,6 +12,7 @@ public enum ErrorCode {
     INVALID_JSON(1101, "Json invalid", HttpStatus.BAD_REQUEST),
     INVALID_STATUS(1118, "Invalid Status", HttpStatus.BAD_REQUEST),
     INVALID_REQUEST(1119, "Invalid Request", HttpStatus.BAD_REQUEST),
+    BULK_LIMIT_EXCEEDED(1120, "Too many orders in one request", HttpStatus.BAD_REQUEST),
 
     //12xx
     UNAUTHENTICATED(1201, "Unauthenticated", HttpStatus.UNAUTHORIZED),
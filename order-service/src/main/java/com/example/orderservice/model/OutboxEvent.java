@@ -0,0 +1,39 @@
+package com.example.orderservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.util.Date;
+
+/**
+ * Event waiting to be relayed to Kafka. Rows are written in the same transaction as
+ * the order they describe and deleted once the broker has acknowledged them.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "order_outbox")
+@ToString
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(nullable = false)
+    String topic;
+
+    @Column(name = "aggregate_id", nullable = false)
+    String aggregateId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    String payload;
+
+    @Column(name = "created_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    @CreationTimestamp
+    Date createdAt;
+}
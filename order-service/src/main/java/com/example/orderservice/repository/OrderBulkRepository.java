@@ -0,0 +1,48 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * JDBC batch writer for bulk order placement. Bypasses the persistence context so
+ * thousands of rows go out as a handful of batched statements instead of one
+ * entity insert each.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderBulkRepository {
+
+    private static final String INSERT_ORDER_SQL =
+            "INSERT INTO orders (id, quantity, user_id, total, created_at, updated_at, is_deleted) VALUES (?, ?, ?, ?, ?, ?, false)";
+
+    private static final String INSERT_OUTBOX_SQL =
+            "INSERT INTO order_outbox (topic, aggregate_id, payload, created_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertOrders(List<Order> orders, Timestamp now) {
+        jdbcTemplate.batchUpdate(INSERT_ORDER_SQL, orders, orders.size(), (ps, order) -> {
+            ps.setString(1, order.getId());
+            ps.setInt(2, order.getQuantity());
+            ps.setString(3, order.getUserId());
+            ps.setDouble(4, order.getTotal());
+            ps.setTimestamp(5, now);
+            ps.setTimestamp(6, now);
+        });
+    }
+
+    public void insertOutboxEvents(List<OutboxEvent> events, Timestamp now) {
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, events, events.size(), (ps, event) -> {
+            ps.setString(1, event.getTopic());
+            ps.setString(2, event.getAggregateId());
+            ps.setString(3, event.getPayload());
+            ps.setTimestamp(4, now);
+        });
+    }
+}
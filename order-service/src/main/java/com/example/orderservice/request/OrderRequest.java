@@ -1,7 +1,21 @@
 package com.example.orderservice.request;
 
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Data;
 
 @Data
 public class OrderRequest {
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private Integer quantity;
+
+    @NotBlank(message = "User ID is required")
+    private String userId;
+
+    @NotNull(message = "Total is required")
+    @PositiveOrZero(message = "Total must not be negative")
+    private Double total;
 }
@@ -0,0 +1,38 @@
+package com.example.orderservice.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderResponse {
+    private int created;
+    private int rejected;
+    private int failed;
+    private List<Result> results;
+
+    public enum Status {
+        CREATED,
+        REJECTED, // failed validation, nothing written
+        FAILED    // valid, but the write of its chunk failed
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Result {
+        private int index;
+        private Status status;
+        private String orderId;
+        private String message;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.event.OrderPlacedEvent;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the order outbox into Kafka. Each run sends one batch keyed by orderId,
+ * flushes the producer once, and deletes only the rows the broker acknowledged;
+ * anything else stays for the next run, so delivery is at-least-once.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderOutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, OrderPlacedEvent> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${order.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${order.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Scheduled(fixedDelayString = "${order.outbox.poll-interval-ms:200}")
+    @Transactional
+    public void relay() {
+        List<OutboxEvent> batch = outboxEventRepository.findBatchForRelay(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<OutboxEvent> pending = new ArrayList<>(batch.size());
+        List<CompletableFuture<SendResult<String, OrderPlacedEvent>>> futures = new ArrayList<>(batch.size());
+        for (OutboxEvent outboxEvent : batch) {
+            try {
+                OrderPlacedEvent event = objectMapper.readValue(outboxEvent.getPayload(), OrderPlacedEvent.class);
+                futures.add(kafkaTemplate.send(outboxEvent.getTopic(), outboxEvent.getAggregateId(), event));
+                pending.add(outboxEvent);
+            } catch (Exception e) {
+                log.error("Cannot relay outbox event {}", outboxEvent.getId(), e);
+            }
+        }
+        kafkaTemplate.flush();
+
+        List<Long> sent = new ArrayList<>(pending.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                sent.add(pending.get(i).getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.warn("Outbox event {} not acknowledged, will retry: {}", pending.get(i).getId(), e.getMessage());
+            }
+        }
+
+        outboxEventRepository.deleteAllByIdInBatch(sent);
+        log.debug("Relayed {}/{} outbox events", sent.size(), batch.size());
+    }
+}
@@ -1,32 +1,197 @@
 package com.example.orderservice.service;
 
+import com.example.orderservice.enums.ErrorCode;
 import com.example.orderservice.event.OrderPlacedEvent;
+import com.example.orderservice.exception.AppException;
 import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.repository.OrderBulkRepository;
 import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.repository.OutboxEventRepository;
+import com.example.orderservice.request.OrderRequest;
+import com.example.orderservice.response.BulkOrderResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
-import org.springframework.kafka.core.KafkaTemplate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class OrderService {
 
+    public static final String ORDER_TOPIC = "order-topic";
+
     private final OrderRepository orderRepository;
-    private final KafkaTemplate<String, OrderPlacedEvent> kafkaTemplate;
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderBulkRepository orderBulkRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    @Value("${order.bulk.max-orders:10000}")
+    private int maxBulkOrders;
 
+    @Value("${order.bulk.chunk-size:1000}")
+    private int bulkChunkSize;
+
+    @Transactional
     public Order createOrder(Order order) {
         Order saved = orderRepository.save(order);
 
-        // Gửi event Kafka
+        // Ghi event vào outbox cùng transaction, OrderOutboxRelay sẽ gửi Kafka sau
         OrderPlacedEvent event = OrderPlacedEvent.builder()
                 .orderId(saved.getId())
                 .userId(saved.getUserId())
                 .total(saved.getTotal())
                 .build();
 
-        kafkaTemplate.send("order-topic", event);
-        System.out.println("📤 Đã gửi Kafka event: " + event);
+        outboxEventRepository.save(OutboxEvent.builder()
+                .topic(ORDER_TOPIC)
+                .aggregateId(saved.getId())
+                .payload(toJson(event))
+                .build());
 
         return saved;
     }
+
+    /**
+     * Places many orders in one call. Invalid entries are rejected individually; the rest
+     * are written in chunks of {@code order.bulk.chunk-size}, each chunk being one
+     * transaction with two JDBC batches (orders + outbox rows). Ids are generated here, so
+     * nothing has to be read back from the database. A failing chunk only fails its own
+     * orders.
+     */
+    public BulkOrderResponse createOrders(List<OrderRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new AppException(ErrorCode.INVALID_REQUEST);
+        }
+        if (requests.size() > maxBulkOrders) {
+            throw new AppException(ErrorCode.BULK_LIMIT_EXCEEDED);
+        }
+
+        BulkOrderResponse.Result[] results = new BulkOrderResponse.Result[requests.size()];
+        List<Integer> pending = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            String error = validate(requests.get(i));
+            if (error != null) {
+                results[i] = BulkOrderResponse.Result.builder()
+                        .index(i)
+                        .status(BulkOrderResponse.Status.REJECTED)
+                        .message(error)
+                        .build();
+            } else {
+                pending.add(i);
+            }
+        }
+
+        for (int from = 0; from < pending.size(); from += bulkChunkSize) {
+            List<Integer> chunk = pending.subList(from, Math.min(from + bulkChunkSize, pending.size()));
+            writeChunk(requests, chunk, results);
+        }
+
+        int created = 0;
+        int rejected = 0;
+        for (BulkOrderResponse.Result result : results) {
+            if (result.getStatus() == BulkOrderResponse.Status.CREATED) {
+                created++;
+            } else if (result.getStatus() == BulkOrderResponse.Status.REJECTED) {
+                rejected++;
+            }
+        }
+
+        return BulkOrderResponse.builder()
+                .created(created)
+                .rejected(rejected)
+                .failed(results.length - created - rejected)
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    private void writeChunk(List<OrderRequest> requests, List<Integer> chunk, BulkOrderResponse.Result[] results) {
+        List<Order> orders = new ArrayList<>(chunk.size());
+        List<OutboxEvent> events = new ArrayList<>(chunk.size());
+        for (int index : chunk) {
+            OrderRequest request = requests.get(index);
+            Order order = new Order();
+            order.setId(UUID.randomUUID().toString());
+            order.setQuantity(request.getQuantity());
+            order.setUserId(request.getUserId());
+            order.setTotal(request.getTotal());
+            orders.add(order);
+
+            events.add(OutboxEvent.builder()
+                    .topic(ORDER_TOPIC)
+                    .aggregateId(order.getId())
+                    .payload(toJson(OrderPlacedEvent.builder()
+                            .orderId(order.getId())
+                            .userId(order.getUserId())
+                            .total(order.getTotal())
+                            .build()))
+                    .build());
+        }
+
+        try {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            transactionTemplate.executeWithoutResult(status -> {
+                orderBulkRepository.insertOrders(orders, now);
+                orderBulkRepository.insertOutboxEvents(events, now);
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to write bulk order chunk of {} orders", chunk.size(), e);
+            for (int index : chunk) {
+                results[index] = BulkOrderResponse.Result.builder()
+                        .index(index)
+                        .status(BulkOrderResponse.Status.FAILED)
+                        .message("Could not save order")
+                        .build();
+            }
+            return;
+        }
+
+        for (int i = 0; i < chunk.size(); i++) {
+            int index = chunk.get(i);
+            results[index] = BulkOrderResponse.Result.builder()
+                    .index(index)
+                    .status(BulkOrderResponse.Status.CREATED)
+                    .orderId(orders.get(i).getId())
+                    .build();
+        }
+    }
+
+    private String validate(OrderRequest request) {
+        if (request == null) {
+            return "Order is required";
+        }
+        Set<ConstraintViolation<OrderRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private String toJson(OrderPlacedEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize order event", e);
+        }
+    }
 }
@@ -2,6 +2,7 @@ package com.example.productservice.config;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -18,6 +19,13 @@ public class JwtService {
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    private Key signKey;
+
+    @PostConstruct
+    public void init() {
+        this.signKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    }
+
     public String generateToken(String username) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
@@ -43,6 +51,10 @@ public class JwtService {
         }
     }
 
+    public Claims extractAllClaims(String token) {
+        return parseToken(token).getBody();
+    }
+
     private Jws<Claims> parseToken(String token) {
         return Jwts.parserBuilder()
                 .setSigningKey(getSignKey())
@@ -51,6 +63,6 @@ public class JwtService {
     }
 
     private Key getSignKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        return signKey;
     }
 }
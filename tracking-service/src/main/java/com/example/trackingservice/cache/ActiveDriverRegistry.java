@@ -0,0 +1,98 @@
+package com.example.trackingservice.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Last-seen time of every driver, kept in a Redis sorted set
+ * ({@code tracking.redis.keys.active-drivers}) scored by the epoch millis of the driver's
+ * latest fix. Listing active drivers is one ZRANGEBYSCORE over the active window, and
+ * finding drivers that went quiet is the same read over everything before it, so neither
+ * touches the locations table. Being in Redis, the registry is shared by all nodes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActiveDriverRegistry {
+
+    // Reads and removes in one step, so a ZADD from touchAll can't land in between and
+    // have its fresh score wiped out
+    private static final RedisScript<List> EXPIRE_SCRIPT = new DefaultRedisScript<>(
+            "local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2]) "
+                    + "if #ids > 0 then redis.call('ZREM', KEYS[1], unpack(ids)) end "
+                    + "return ids",
+            List.class);
+
+    private static final int EXPIRE_BATCH_SIZE = 1000;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${tracking.redis.keys.active-drivers:driver:active}")
+    private String activeDriversKey;
+
+    /**
+     * Records the latest fix time per driver with one ZADD.
+     */
+    public void touchAll(Map<String, Long> lastSeenMillis) {
+        if (lastSeenMillis.isEmpty()) {
+            return;
+        }
+        Set<ZSetOperations.TypedTuple<String>> members = new HashSet<>();
+        lastSeenMillis.forEach((driverId, millis) -> members.add(new DefaultTypedTuple<>(driverId, millis.doubleValue())));
+        try {
+            zSet().add(activeDriversKey, members);
+        } catch (Exception e) {
+            log.error("Error updating active driver registry for {} drivers", members.size(), e);
+        }
+    }
+
+    /**
+     * @return ids of drivers seen within the last {@code window}, most recent first
+     */
+    public List<String> activeSince(Duration window) {
+        long from = System.currentTimeMillis() - window.toMillis();
+        Set<String> ids = zSet().reverseRangeByScore(activeDriversKey, from, Double.POSITIVE_INFINITY);
+        return ids != null ? new ArrayList<>(ids) : List.of();
+    }
+
+    /**
+     * Removes drivers last seen more than {@code window} ago. Each batch is read and removed
+     * by one Lua script, so a driver touched during the sweep keeps its entry.
+     *
+     * @return the drivers this call removed; when several nodes sweep at once each driver is
+     * returned by exactly one of them
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> expire(Duration window) {
+        String cutoff = Long.toString(System.currentTimeMillis() - window.toMillis());
+        List<String> expired = new ArrayList<>();
+        List<String> batch;
+        do {
+            batch = stringRedisTemplate.execute(EXPIRE_SCRIPT, List.of(activeDriversKey),
+                    cutoff, Integer.toString(EXPIRE_BATCH_SIZE));
+            if (batch == null) {
+                break;
+            }
+            expired.addAll(batch);
+        } while (batch.size() == EXPIRE_BATCH_SIZE);
+        return expired;
+    }
+
+    private ZSetOperations<String, String> zSet() {
+        return stringRedisTemplate.opsForZSet();
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.trackingservice.cache;
+
+import com.example.trackingservice.dto.LocationResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latest known location per driver, kept in a single Redis hash
+ * ({@code tracking.redis.keys.driver-locations}). The hash field is the driver id and the
+ * value is the binary layout of {@link DriverLocationCodec}. A whole batch is written with
+ * one script call and any number of drivers is read with one HMGET, so a fleet snapshot
+ * costs a single round-trip. The script compares timestamps and never replaces an entry
+ * with an older fix. That keeps a read-through backfill from the database, or a slower
+ * node's flush, from overwriting a newer fix.
+ * <p>
+ * Hash fields cannot expire on their own. Each entry's timestamp is checked on read
+ * instead, and entries older than {@code tracking.redis.location-ttl-minutes} are
+ * treated as missing and deleted. The hash key as a whole gets the same TTL, refreshed
+ * by the same script call, so it clears itself when the fleet goes quiet.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DriverLocationCache {
+
+    // ARGV: TTL in seconds, then field/value pairs. The timestamp sits at byte 19 (1-based)
+    // of every DriverLocationCodec value
+    private static final RedisScript<Long> PUT_IF_NEWER_SCRIPT = new DefaultRedisScript<>(
+            "local written = 0 "
+                    + "for i = 2, #ARGV, 2 do "
+                    + "local current = redis.call('HGET', KEYS[1], ARGV[i]) "
+                    + "if not current or struct.unpack('>i8', current, 19) <= struct.unpack('>i8', ARGV[i + 1], 19) then "
+                    + "redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) "
+                    + "written = written + 1 "
+                    + "end "
+                    + "end "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[1]) "
+                    + "return written",
+            Long.class);
+
+    private final RedisTemplate<String, byte[]> driverLocationRedisTemplate;
+
+    @Value("${tracking.redis.keys.driver-locations}")
+    private String driverLocationsKey;
+
+    @Value("${tracking.redis.location-ttl-minutes:30}")
+    private long ttlMinutes;
+
+    public void put(LocationResponse location) {
+        putAll(List.of(location));
+    }
+
+    /**
+     * Writes all locations and refreshes the hash TTL in one round-trip. A driver whose
+     * cached entry has a newer timestamp keeps it. When a driver appears more than once,
+     * the last entry wins.
+     */
+    public void putAll(Collection<LocationResponse> locations) {
+        if (locations.isEmpty()) {
+            return;
+        }
+        Map<String, byte[]> fields = new LinkedHashMap<>();
+        for (LocationResponse location : locations) {
+            fields.put(location.getDriverId(), DriverLocationCodec.encode(location));
+        }
+        Object[] args = new Object[1 + 2 * fields.size()];
+        args[0] = String.valueOf(Duration.ofMinutes(ttlMinutes).toSeconds()).getBytes(StandardCharsets.UTF_8);
+        int i = 1;
+        for (Map.Entry<String, byte[]> field : fields.entrySet()) {
+            args[i++] = field.getKey().getBytes(StandardCharsets.UTF_8);
+            args[i++] = field.getValue();
+        }
+        try {
+            driverLocationRedisTemplate.execute(PUT_IF_NEWER_SCRIPT, List.of(driverLocationsKey), args);
+        } catch (Exception e) {
+            log.error("Error caching {} driver locations", fields.size(), e);
+        }
+    }
+
+    public LocationResponse get(String driverId) {
+        try {
+            byte[] value = hash().get(driverLocationsKey, driverId);
+            return value != null && isFresh(value) ? DriverLocationCodec.decode(driverId, value) : null;
+        } catch (Exception e) {
+            log.error("Error getting cached driver location", e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the given drivers with a single HMGET.
+     *
+     * @return cached locations by driver id, in request order; missing or stale drivers are absent
+     */
+    public Map<String, LocationResponse> getAll(List<String> driverIds) {
+        Map<String, LocationResponse> result = new LinkedHashMap<>();
+        if (driverIds.isEmpty()) {
+            return result;
+        }
+        try {
+            List<byte[]> values = hash().multiGet(driverLocationsKey, driverIds);
+            List<String> stale = new ArrayList<>();
+            for (int i = 0; i < driverIds.size(); i++) {
+                byte[] value = values.get(i);
+                if (value == null) {
+                    continue;
+                }
+                if (!isFresh(value)) {
+                    stale.add(driverIds.get(i));
+                    continue;
+                }
+                LocationResponse location = DriverLocationCodec.decode(driverIds.get(i), value);
+                if (location != null) {
+                    result.put(driverIds.get(i), location);
+                }
+            }
+            evict(stale);
+        } catch (Exception e) {
+            log.error("Error getting {} cached driver locations", driverIds.size(), e);
+        }
+        return result;
+    }
+
+    public void remove(String driverId) {
+        try {
+            hash().delete(driverLocationsKey, driverId);
+        } catch (Exception e) {
+            log.error("Error removing cached driver location", e);
+        }
+    }
+
+    private void evict(List<String> driverIds) {
+        if (!driverIds.isEmpty()) {
+            hash().delete(driverLocationsKey, driverIds.toArray());
+        }
+    }
+
+    private boolean isFresh(byte[] value) {
+        long cutoff = LocalDateTime.now().minusMinutes(ttlMinutes).toInstant(ZoneOffset.UTC).toEpochMilli();
+        return DriverLocationCodec.timestampMillis(value) >= cutoff;
+    }
+
+    private HashOperations<String, String, byte[]> hash() {
+        return driverLocationRedisTemplate.opsForHash();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.trackingservice.cache;
+
+import com.example.trackingservice.dto.OrderTrackingResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Last known snapshot of each order, as JSON under
+ * {@code tracking.redis.keys.order-tracking}{@code :<orderId>}. Position updates overlay
+ * their coordinates on it, so they can answer with a complete
+ * {@link OrderTrackingResponse} without reading {@code order_tracking}. Every write of
+ * the row's other columns (creation, status changes) replaces the snapshot. Being in
+ * Redis, a status change made on one node is seen by the others. Entries expire after
+ * {@code tracking.redis.order-tracking-ttl-hours} and are reloaded on the next miss.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderTrackingCache {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${tracking.redis.keys.order-tracking}")
+    private String orderTrackingKey;
+
+    @Value("${tracking.redis.order-tracking-ttl-hours:24}")
+    private long ttlHours;
+
+    public void put(OrderTrackingResponse tracking) {
+        try {
+            stringRedisTemplate.opsForValue().set(key(tracking.getOrderId()),
+                    objectMapper.writeValueAsString(tracking), Duration.ofHours(ttlHours));
+        } catch (Exception e) {
+            log.error("Error caching order tracking {}", tracking.getOrderId(), e);
+        }
+    }
+
+    /**
+     * @return the cached snapshot, or {@code null} if there is none or Redis is unavailable
+     */
+    public OrderTrackingResponse get(String orderId) {
+        try {
+            String value = stringRedisTemplate.opsForValue().get(key(orderId));
+            return value != null ? objectMapper.readValue(value, OrderTrackingResponse.class) : null;
+        } catch (Exception e) {
+            log.error("Error getting cached order tracking {}", orderId, e);
+            return null;
+        }
+    }
+
+    private String key(String orderId) {
+        return orderTrackingKey + ":" + orderId;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.trackingservice.config;
+
+import com.example.trackingservice.realtime.DroppingWebSocketSession;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.config.annotation.DelegatingWebSocketMessageBrokerConfiguration;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+/**
+ * Takes the place of {@code @EnableWebSocketMessageBroker} so the STOMP handler can be
+ * customised; {@link WebSocketConfig} still supplies the broker and endpoint settings.
+ * <p>
+ * {@link SubProtocolWebSocketHandler} wraps every session in a decorator that closes it
+ * once the send buffer overflows. Any decoration applied before that point sits behind
+ * the closing one and never sees an overflow, so the session is replaced here instead,
+ * with one that drops the oldest frames and counts them in
+ * {@code tracking.websocket.frames.dropped}.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebSocketBrokerConfiguration extends DelegatingWebSocketMessageBrokerConfiguration {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    @Bean
+    public WebSocketHandler subProtocolWebSocketHandler(AbstractSubscribableChannel clientInboundChannel,
+                                                        AbstractSubscribableChannel clientOutboundChannel) {
+        Counter droppedFrames = Counter.builder("tracking.websocket.frames.dropped")
+                .description("Frames dropped from the send buffer of a client that fell behind")
+                .register(meterRegistry);
+        return new SubProtocolWebSocketHandler(clientInboundChannel, clientOutboundChannel) {
+            @Override
+            protected WebSocketSession decorateSession(WebSocketSession session) {
+                return new DroppingWebSocketSession(session, getSendTimeLimit(), getSendBufferSizeLimit(), droppedFrames);
+            }
+        };
+    }
+}
@@ -1,18 +1,55 @@
 package com.example.trackingservice.config;
 
+import com.example.trackingservice.realtime.FanoutMode;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
-import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+/**
+ * Broker and endpoint settings. The broker infrastructure itself comes from
+ * {@link WebSocketBrokerConfiguration}.
+ */
 @Configuration
-@EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Value("${tracking.fanout.mode:local}")
+    private FanoutMode fanoutMode;
+
+    @Value("${tracking.fanout.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${tracking.fanout.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${tracking.fanout.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${tracking.fanout.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${tracking.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${tracking.websocket.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        if (fanoutMode == FanoutMode.RELAY) {
+            // Subscriptions live on the external broker, so every node sees every message
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode);
+        } else {
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
     }
@@ -23,4 +60,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
     }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Limits for the per-session send buffer; see WebSocketBrokerConfiguration for what
+        // happens when a client falls behind
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit);
+    }
 }
\ No newline at end of file
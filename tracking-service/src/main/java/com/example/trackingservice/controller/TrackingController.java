@@ -1,19 +1,26 @@
 package com.example.trackingservice.controller;
 
+import com.example.trackingservice.dto.LocationBatchResult;
+import com.example.trackingservice.dto.LocationHistoryPage;
 import com.example.trackingservice.dto.LocationResponse;
+import com.example.trackingservice.dto.LocationTrackResponse;
 import com.example.trackingservice.dto.LocationUpdateRequest;
 import com.example.trackingservice.dto.OrderTrackingResponse;
 import com.example.trackingservice.model.DeliveryStatus;
+import com.example.trackingservice.realtime.LiveUpdateFanout;
 import com.example.trackingservice.service.TrackingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -23,20 +30,24 @@ import java.util.List;
 public class TrackingController {
 
     private final TrackingService trackingService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final LiveUpdateFanout liveUpdateFanout;
 
     // Location tracking endpoints
     @PostMapping("/location")
     @Operation(summary = "Update driver location", description = "Update GPS location for a driver")
     public ResponseEntity<LocationResponse> updateLocation(@Valid @RequestBody LocationUpdateRequest request) {
+        // WebSocket subscribers are notified once the fix is persisted, see TrackingServiceImpl
         LocationResponse response = trackingService.updateLocation(request);
-        
-        // Send real-time update via WebSocket
-        messagingTemplate.convertAndSend("/topic/location/" + request.getDriverId(), response);
-        
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping(value = "/location/batch", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Upload a batch of driver locations", description = "Upload several buffered GPS fixes of one device in the compact binary format described in LocationBatchCodec")
+    public ResponseEntity<LocationBatchResult> ingestLocationBatch(@RequestBody byte[] payload) {
+        LocationBatchResult result = trackingService.ingestLocationBatch(payload);
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/location/{driverId}")
     @Operation(summary = "Get current driver location", description = "Get the current GPS location of a driver")
     public ResponseEntity<LocationResponse> getCurrentLocation(@PathVariable String driverId) {
@@ -48,14 +59,43 @@ public class TrackingController {
     }
 
     @GetMapping("/location/{driverId}/history")
-    @Operation(summary = "Get location history", description = "Get location history for a driver")
-    public ResponseEntity<List<LocationResponse>> getLocationHistory(
+    @Operation(summary = "Get location history", description = "Get one page of location history for a driver, newest first. Pass nextCursor back as cursor for the next page")
+    public ResponseEntity<LocationHistoryPage> getLocationHistory(
             @PathVariable String driverId,
-            @RequestParam(required = false) String orderId) {
-        List<LocationResponse> history = trackingService.getLocationHistory(driverId, orderId);
+            @RequestParam(required = false) String orderId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        LocationHistoryPage history = trackingService.getLocationHistory(driverId, orderId, from, to, cursor, limit);
         return ResponseEntity.ok(history);
     }
 
+    @GetMapping("/location/{driverId}/history/polyline")
+    @Operation(summary = "Get simplified location trail", description = "Get a driver's trail simplified with Douglas-Peucker (tolerance in meters) as an encoded polyline")
+    public ResponseEntity<LocationTrackResponse> getSimplifiedTrack(
+            @PathVariable String driverId,
+            @RequestParam(required = false) String orderId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Double toleranceMeters) {
+        LocationTrackResponse track = trackingService.getSimplifiedTrack(driverId, orderId, from, to, toleranceMeters);
+        return ResponseEntity.ok(track);
+    }
+
+    @GetMapping(value = "/location/{driverId}/history/stream", produces = "application/x-ndjson")
+    @Operation(summary = "Stream location history", description = "Stream the full location history for a driver as newline-delimited JSON, oldest first")
+    public ResponseEntity<StreamingResponseBody> streamLocationHistory(
+            @PathVariable String driverId,
+            @RequestParam(required = false) String orderId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = out -> trackingService.streamLocationHistory(driverId, orderId, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @GetMapping("/location/active")
     @Operation(summary = "Get active driver locations", description = "Get current locations of all active drivers")
     public ResponseEntity<List<LocationResponse>> getActiveDriverLocations() {
@@ -89,7 +129,7 @@ public class TrackingController {
         OrderTrackingResponse response = trackingService.updateOrderStatus(orderId, status);
         
         // Send real-time update via WebSocket
-        messagingTemplate.convertAndSend("/topic/order/" + orderId, response);
+        liveUpdateFanout.publishOrderStatus(response);
         
         return ResponseEntity.ok(response);
     }
@@ -104,7 +144,7 @@ public class TrackingController {
         OrderTrackingResponse response = trackingService.updateOrderLocation(orderId, latitude, longitude);
         
         // Send real-time update via WebSocket
-        messagingTemplate.convertAndSend("/topic/order/" + orderId, response);
+        liveUpdateFanout.publishOrderLocation(response);
         
         return ResponseEntity.ok(response);
     }
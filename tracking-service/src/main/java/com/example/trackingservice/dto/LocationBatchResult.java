@@ -0,0 +1,18 @@
+package com.example.trackingservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationBatchResult {
+    private String driverId;
+    private int received;
+    private int dropped;  // duplicates and stationary repeats, nothing to resend
+    private int accepted; // queued
+    private int rejected; // queue was full; these are the last fixes of the batch and can be resent
+}
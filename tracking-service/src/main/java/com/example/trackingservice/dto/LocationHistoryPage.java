@@ -0,0 +1,17 @@
+package com.example.trackingservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationHistoryPage {
+    private List<LocationResponse> items;
+    private String nextCursor; // null on the last page
+}
@@ -0,0 +1,23 @@
+package com.example.trackingservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationTrackResponse {
+    private String driverId;
+    private String orderId;
+    private LocalDateTime startTime; // first fix of the trail
+    private LocalDateTime endTime;   // last fix of the trail
+    private Double toleranceMeters;
+    private int originalPoints;
+    private int simplifiedPoints;
+    private String polyline; // encoded polyline, precision 1e-5
+}
@@ -9,6 +9,8 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.DecimalMax;
 
+import java.time.LocalDateTime;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -34,4 +36,7 @@ public class LocationUpdateRequest {
     private Double speed;
     private Double heading;
     private Double accuracy;
+    
+    private LocalDateTime timestamp; // device time of the fix; arrival time when absent
+    private Long sequence; // per-driver counter from the app, used to spot retries and late fixes
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+package com.example.trackingservice.eta;
+
+import com.example.trackingservice.geo.GeoUtils;
+import com.example.trackingservice.model.DeliveryStatus;
+import com.example.trackingservice.model.Location;
+import com.example.trackingservice.model.OrderTracking;
+import com.example.trackingservice.repository.OrderTrackingBatchRepository;
+import com.example.trackingservice.repository.OrderTrackingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps an estimated arrival for every in-flight order, recomputed from each fix of its
+ * driver as remaining haversine distance to the delivery point divided by the driver's
+ * smoothed speed (exponential moving average of {@code Location.speed}, floored at
+ * {@code tracking.eta.min-speed-kmh}). Reads are served from memory. An estimate is only
+ * written back when it has drifted more than {@code tracking.eta.persist-threshold-seconds}
+ * from the stored value, and the writes of one ingest batch go out as one JDBC batch.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EtaEngine {
+
+    private static final Set<DeliveryStatus> IN_FLIGHT = EnumSet.of(
+            DeliveryStatus.ASSIGNED, DeliveryStatus.PICKED_UP, DeliveryStatus.IN_TRANSIT, DeliveryStatus.OUT_FOR_DELIVERY);
+
+    private final OrderTrackingRepository orderTrackingRepository;
+    private final OrderTrackingBatchRepository batchRepository;
+
+    @Value("${tracking.eta.speed-smoothing:0.3}")
+    private double speedSmoothing;
+
+    @Value("${tracking.eta.min-speed-kmh:5}")
+    private double minSpeedKmh;
+
+    @Value("${tracking.eta.persist-threshold-seconds:60}")
+    private long persistThresholdSeconds;
+
+    private final Map<String, OrderEta> orders = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> ordersByDriver = new ConcurrentHashMap<>();
+    private final Map<String, Double> driverSpeedKmh = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        orderTrackingRepository.findByStatusIn(IN_FLIGHT).forEach(this::track);
+        log.info("ETA engine tracking {} in-flight orders", orders.size());
+    }
+
+    /**
+     * Starts, updates or stops tracking an order according to its status.
+     */
+    public void track(OrderTracking tracking) {
+        String orderId = tracking.getOrderId();
+        OrderEta previous = orders.remove(orderId);
+        if (previous != null) {
+            unlinkDriver(previous.driverId, orderId);
+        }
+        if (!IN_FLIGHT.contains(tracking.getStatus()) || tracking.getDriverId() == null
+                || tracking.getDeliveryLatitude() == null || tracking.getDeliveryLongitude() == null) {
+            return;
+        }
+
+        OrderEta eta = new OrderEta(tracking.getDriverId(), tracking.getDeliveryLatitude(), tracking.getDeliveryLongitude());
+        eta.estimatedArrival = previous != null ? previous.estimatedArrival : tracking.getEstimatedArrival();
+        eta.persistedArrival = tracking.getEstimatedArrival();
+        orders.put(orderId, eta);
+        ordersByDriver.computeIfAbsent(tracking.getDriverId(), id -> ConcurrentHashMap.newKeySet()).add(orderId);
+    }
+
+    /**
+     * @return the latest estimate, or {@code null} if the order is not in flight or has no fix yet
+     */
+    public LocalDateTime getEstimatedArrival(String orderId) {
+        OrderEta eta = orders.get(orderId);
+        return eta != null ? eta.estimatedArrival : null;
+    }
+
+    /**
+     * Folds a batch of persisted fixes into the estimates. Called from the ingestion
+     * flusher thread only.
+     */
+    public void onFixes(List<Location> fixes) {
+        Map<String, LocalDateTime> dirty = new HashMap<>();
+        for (Location fix : fixes) {
+            double speed = smoothSpeed(fix);
+            Set<String> orderIds = ordersByDriver.get(fix.getDriverId());
+            if (orderIds == null) {
+                continue;
+            }
+            for (String orderId : orderIds) {
+                OrderEta eta = orders.get(orderId);
+                if (eta == null) {
+                    continue;
+                }
+                double remainingKm = GeoUtils.haversineKm(fix.getLatitude(), fix.getLongitude(), eta.deliveryLatitude, eta.deliveryLongitude);
+                long secondsLeft = Math.round(remainingKm / speed * 3600);
+                eta.estimatedArrival = fix.getTimestamp().plusSeconds(secondsLeft);
+                if (eta.persistedArrival == null
+                        || Math.abs(Duration.between(eta.persistedArrival, eta.estimatedArrival).getSeconds()) > persistThresholdSeconds) {
+                    dirty.put(orderId, eta.estimatedArrival);
+                }
+            }
+        }
+
+        if (dirty.isEmpty()) {
+            return;
+        }
+        try {
+            batchRepository.updateEstimatedArrivals(dirty);
+            dirty.forEach((orderId, arrival) -> {
+                OrderEta eta = orders.get(orderId);
+                if (eta != null) {
+                    eta.persistedArrival = arrival;
+                }
+            });
+        } catch (Exception e) {
+            // Estimates stay in memory and are retried on the next fix
+            log.error("Failed to persist {} estimated arrivals", dirty.size(), e);
+        }
+    }
+
+    private double smoothSpeed(Location fix) {
+        Double reported = fix.getSpeed();
+        Double smoothed = driverSpeedKmh.get(fix.getDriverId());
+        if (reported != null && reported >= 0) {
+            smoothed = smoothed == null ? reported : speedSmoothing * reported + (1 - speedSmoothing) * smoothed;
+            driverSpeedKmh.put(fix.getDriverId(), smoothed);
+        }
+        return Math.max(smoothed != null ? smoothed : minSpeedKmh, minSpeedKmh);
+    }
+
+    private void unlinkDriver(String driverId, String orderId) {
+        ordersByDriver.computeIfPresent(driverId, (id, orderIds) -> {
+            orderIds.remove(orderId);
+            return orderIds.isEmpty() ? null : orderIds;
+        });
+    }
+
+    private static final class OrderEta {
+        private final String driverId;
+        private final double deliveryLatitude;
+        private final double deliveryLongitude;
+        private volatile LocalDateTime estimatedArrival;
+        private volatile LocalDateTime persistedArrival;
+
+        private OrderEta(String driverId, double deliveryLatitude, double deliveryLongitude) {
+            this.driverId = driverId;
+            this.deliveryLatitude = deliveryLatitude;
+            this.deliveryLongitude = deliveryLongitude;
+        }
+    }
+}
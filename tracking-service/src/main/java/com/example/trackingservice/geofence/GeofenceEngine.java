@@ -0,0 +1,300 @@
+package com.example.trackingservice.geofence;
+
+import com.example.trackingservice.geo.GeoUtils;
+import com.example.trackingservice.model.DeliveryStatus;
+import com.example.trackingservice.model.Location;
+import com.example.trackingservice.model.OrderTracking;
+import com.example.trackingservice.repository.OrderTrackingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detects pickup and arrival from the fix stream. Every in-flight order gets a circle
+ * around its pickup point and one around its delivery point, registered in a spatial hash
+ * of {@code tracking.geofence.cell-size-degrees} cells. A fix is checked against the fences
+ * in its own cell plus the few its driver is already inside or approaching, so the cost
+ * per fix does not grow with the number of orders. Entering or leaving a fence only counts
+ * after {@code tracking.geofence.debounce-fixes} consecutive fixes agree, which filters out
+ * GPS jitter at the edge of a circle.
+ * <p>
+ * Transitions: entering pickup moves ASSIGNED to PICKED_UP, leaving pickup moves PICKED_UP
+ * to IN_TRANSIT, and entering the delivery circle moves PICKED_UP or IN_TRANSIT to
+ * OUT_FOR_DELIVERY. DELIVERED still needs an explicit confirmation. Each transition
+ * carries the status it was detected from and is only applied while the order is still in
+ * it, so a node that has not yet seen a change made elsewhere cannot move the order back.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GeofenceEngine {
+
+    private static final Set<DeliveryStatus> IN_FLIGHT = EnumSet.of(
+            DeliveryStatus.ASSIGNED, DeliveryStatus.PICKED_UP, DeliveryStatus.IN_TRANSIT, DeliveryStatus.OUT_FOR_DELIVERY);
+
+    private final OrderTrackingRepository orderTrackingRepository;
+
+    @Value("${tracking.geofence.pickup-radius-m:100}")
+    private double pickupRadiusMeters;
+
+    @Value("${tracking.geofence.delivery-radius-m:100}")
+    private double deliveryRadiusMeters;
+
+    @Value("${tracking.geofence.debounce-fixes:2}")
+    private int debounceFixes;
+
+    @Value("${tracking.geofence.cell-size-degrees:0.01}")
+    private double cellSizeDegrees;
+
+    private final Map<String, OrderFences> orders = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Fence>> cells = new ConcurrentHashMap<>();
+    // Fences a driver is inside of or has started entering, checked on every fix of that driver
+    private final Map<String, Set<Fence>> watchedByDriver = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        orderTrackingRepository.findByStatusIn(IN_FLIGHT).forEach(this::track);
+        log.info("Geofence engine watching {} in-flight orders", orders.size());
+    }
+
+    /**
+     * Registers, refreshes or drops the fences of an order according to its status.
+     */
+    public void track(OrderTracking tracking) {
+        OrderFences previous = orders.remove(tracking.getOrderId());
+        if (previous != null) {
+            unregister(previous);
+        }
+        if (!IN_FLIGHT.contains(tracking.getStatus()) || tracking.getDriverId() == null) {
+            return;
+        }
+
+        OrderFences fences = new OrderFences(tracking.getStatus());
+        if (tracking.getPickupLatitude() != null && tracking.getPickupLongitude() != null) {
+            fences.pickup = new Fence(tracking.getOrderId(), tracking.getDriverId(), FenceType.PICKUP,
+                    tracking.getPickupLatitude(), tracking.getPickupLongitude(), pickupRadiusMeters / 1000.0);
+        }
+        if (tracking.getDeliveryLatitude() != null && tracking.getDeliveryLongitude() != null) {
+            fences.delivery = new Fence(tracking.getOrderId(), tracking.getDriverId(), FenceType.DELIVERY,
+                    tracking.getDeliveryLatitude(), tracking.getDeliveryLongitude(), deliveryRadiusMeters / 1000.0);
+        }
+        // Keep what was already observed so a status update doesn't restart debouncing
+        if (previous != null && previous.driverId().equals(tracking.getDriverId())) {
+            fences.carryOver(previous);
+        }
+        orders.put(tracking.getOrderId(), fences);
+        register(fences);
+    }
+
+    /**
+     * Evaluates a batch of fixes. Called from the ingestion flusher thread only.
+     *
+     * @return the status transitions to apply, in the order they were detected
+     */
+    public List<GeofenceTransition> onFixes(List<Location> fixes) {
+        List<GeofenceTransition> transitions = new ArrayList<>();
+        for (Location fix : fixes) {
+            Set<Fence> candidates = new LinkedHashSet<>();
+            Set<Fence> inCell = cells.get(cellKey(cellIndex(fix.getLatitude()), cellIndex(fix.getLongitude())));
+            if (inCell != null) {
+                candidates.addAll(inCell);
+            }
+            Set<Fence> watched = watchedByDriver.get(fix.getDriverId());
+            if (watched != null) {
+                candidates.addAll(watched);
+            }
+            for (Fence fence : candidates) {
+                if (fence.driverId.equals(fix.getDriverId())) {
+                    evaluate(fence, fix, transitions);
+                }
+            }
+        }
+        return transitions;
+    }
+
+    private void evaluate(Fence fence, Location fix, List<GeofenceTransition> transitions) {
+        boolean inside = GeoUtils.haversineKm(fix.getLatitude(), fix.getLongitude(), fence.latitude, fence.longitude) <= fence.radiusKm;
+        if (inside) {
+            fence.outsideStreak = 0;
+            fence.insideStreak++;
+            watch(fence);
+            if (!fence.inside && fence.insideStreak >= debounceFixes) {
+                fence.inside = true;
+                onEnter(fence, transitions);
+            }
+        } else {
+            fence.insideStreak = 0;
+            fence.outsideStreak++;
+            if (!fence.inside) {
+                unwatch(fence);
+            } else if (fence.outsideStreak >= debounceFixes) {
+                fence.inside = false;
+                unwatch(fence);
+                onExit(fence, transitions);
+            }
+        }
+    }
+
+    private void onEnter(Fence fence, List<GeofenceTransition> transitions) {
+        OrderFences order = orders.get(fence.orderId);
+        if (order == null) {
+            return;
+        }
+        if (fence.type == FenceType.PICKUP && order.status == DeliveryStatus.ASSIGNED) {
+            transition(fence.orderId, order, DeliveryStatus.PICKED_UP, transitions);
+        } else if (fence.type == FenceType.DELIVERY
+                && (order.status == DeliveryStatus.PICKED_UP || order.status == DeliveryStatus.IN_TRANSIT)) {
+            transition(fence.orderId, order, DeliveryStatus.OUT_FOR_DELIVERY, transitions);
+        }
+    }
+
+    private void onExit(Fence fence, List<GeofenceTransition> transitions) {
+        OrderFences order = orders.get(fence.orderId);
+        if (order != null && fence.type == FenceType.PICKUP && order.status == DeliveryStatus.PICKED_UP) {
+            transition(fence.orderId, order, DeliveryStatus.IN_TRANSIT, transitions);
+        }
+    }
+
+    private void transition(String orderId, OrderFences order, DeliveryStatus status, List<GeofenceTransition> transitions) {
+        // Applied locally right away so the same crossing is not reported twice
+        DeliveryStatus from = order.status;
+        order.status = status;
+        transitions.add(new GeofenceTransition(orderId, from, status));
+    }
+
+    private void register(OrderFences fences) {
+        for (Fence fence : fences.all()) {
+            for (long cell : coveredCells(fence)) {
+                cells.computeIfAbsent(cell, key -> ConcurrentHashMap.newKeySet()).add(fence);
+            }
+            if (fence.inside || fence.insideStreak > 0) {
+                watch(fence);
+            }
+        }
+    }
+
+    private void unregister(OrderFences fences) {
+        for (Fence fence : fences.all()) {
+            for (long cell : coveredCells(fence)) {
+                cells.computeIfPresent(cell, (key, set) -> {
+                    set.remove(fence);
+                    return set.isEmpty() ? null : set;
+                });
+            }
+            unwatch(fence);
+        }
+    }
+
+    private void watch(Fence fence) {
+        watchedByDriver.computeIfAbsent(fence.driverId, id -> ConcurrentHashMap.newKeySet()).add(fence);
+    }
+
+    private void unwatch(Fence fence) {
+        watchedByDriver.computeIfPresent(fence.driverId, (id, set) -> {
+            set.remove(fence);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private List<Long> coveredCells(Fence fence) {
+        double latRadius = fence.radiusKm / GeoUtils.KM_PER_DEGREE_LAT;
+        double lngRadius = fence.radiusKm / (GeoUtils.KM_PER_DEGREE_LAT * Math.max(Math.cos(Math.toRadians(fence.latitude)), 0.01));
+        List<Long> covered = new ArrayList<>();
+        for (int lat = cellIndex(fence.latitude - latRadius); lat <= cellIndex(fence.latitude + latRadius); lat++) {
+            for (int lng = cellIndex(fence.longitude - lngRadius); lng <= cellIndex(fence.longitude + lngRadius); lng++) {
+                covered.add(cellKey(lat, lng));
+            }
+        }
+        return covered;
+    }
+
+    private int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / cellSizeDegrees);
+    }
+
+    private static long cellKey(int latIndex, int lngIndex) {
+        return ((long) latIndex << 32) | (lngIndex & 0xffffffffL);
+    }
+
+    private enum FenceType {
+        PICKUP,
+        DELIVERY
+    }
+
+    private static final class OrderFences {
+        private volatile DeliveryStatus status;
+        private Fence pickup;
+        private Fence delivery;
+
+        private OrderFences(DeliveryStatus status) {
+            this.status = status;
+        }
+
+        private String driverId() {
+            Fence any = pickup != null ? pickup : delivery;
+            return any != null ? any.driverId : "";
+        }
+
+        private List<Fence> all() {
+            List<Fence> all = new ArrayList<>(2);
+            if (pickup != null) {
+                all.add(pickup);
+            }
+            if (delivery != null) {
+                all.add(delivery);
+            }
+            return all;
+        }
+
+        private void carryOver(OrderFences previous) {
+            if (pickup != null && previous.pickup != null) {
+                pickup.copyStateFrom(previous.pickup);
+            }
+            if (delivery != null && previous.delivery != null) {
+                delivery.copyStateFrom(previous.delivery);
+            }
+        }
+    }
+
+    /**
+     * A circle plus its debounce state. The state is only changed by the flusher thread;
+     * identity-based equality keeps replaced fences apart in the hash sets.
+     */
+    private static final class Fence {
+        private final String orderId;
+        private final String driverId;
+        private final FenceType type;
+        private final double latitude;
+        private final double longitude;
+        private final double radiusKm;
+        private boolean inside;
+        private int insideStreak;
+        private int outsideStreak;
+
+        private Fence(String orderId, String driverId, FenceType type, double latitude, double longitude, double radiusKm) {
+            this.orderId = orderId;
+            this.driverId = driverId;
+            this.type = type;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.radiusKm = radiusKm;
+        }
+
+        private void copyStateFrom(Fence other) {
+            this.inside = other.inside;
+            this.insideStreak = other.insideStreak;
+            this.outsideStreak = other.outsideStreak;
+        }
+    }
+}
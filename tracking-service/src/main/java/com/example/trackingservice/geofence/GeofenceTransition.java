@@ -0,0 +1,16 @@
+package com.example.trackingservice.geofence;
+
+import com.example.trackingservice.model.DeliveryStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class GeofenceTransition {
+    private final String orderId;
+    // Status the engine saw; the transition only applies if the order is still in it
+    private final DeliveryStatus from;
+    private final DeliveryStatus status;
+}
@@ -0,0 +1,185 @@
+package com.example.trackingservice.history;
+
+import com.example.trackingservice.repository.LocationHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps the {@code locations} table bounded. Fixes stay at full resolution for
+ * {@code tracking.history.downsample-after-hours}, are thinned to one per driver per
+ * minute after that, and are deleted after {@code tracking.history.retention-days}.
+ * Work is split into fixed time windows and bounded deletes, so a run never scans or
+ * locks the whole table. The end of the last downsampled window is stored in Redis
+ * ({@code tracking.redis.keys.history-downsampled-until}) after every window. A restart,
+ * or another node taking over the job, resumes from there instead of walking the whole
+ * retained range again. Fixes uploaded late can land behind the watermark, so every run
+ * also thins the last {@code tracking.history.late-fix-rescan-hours} before it again.
+ * <p>
+ * Every node schedules the job, but a run only proceeds on the node that takes the lock
+ * next to the watermark ({@code tracking.redis.keys.history-maintenance-lock}). The lock
+ * expires after {@code tracking.history.lock-ttl-ms} if its holder dies, and the holder
+ * extends it after every window.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LocationHistoryMaintenance {
+
+    // Only the holder may extend or release the lock
+    private static final RedisScript<Long> EXTEND_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end return 0",
+            Long.class);
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+
+    private final LocationHistoryRepository historyRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${tracking.redis.keys.history-downsampled-until:history:downsampled-until}")
+    private String downsampledUntilKey;
+
+    @Value("${tracking.redis.keys.history-maintenance-lock:history:maintenance-lock}")
+    private String lockKey;
+
+    @Value("${tracking.history.lock-ttl-ms:300000}")
+    private long lockTtlMs;
+
+    @Value("${tracking.history.late-fix-rescan-hours:6}")
+    private long lateFixRescanHours;
+
+    @Value("${tracking.history.downsample-after-hours:24}")
+    private long downsampleAfterHours;
+
+    @Value("${tracking.history.retention-days:90}")
+    private long retentionDays;
+
+    @Value("${tracking.history.window-minutes:60}")
+    private long windowMinutes;
+
+    @Value("${tracking.history.max-windows-per-run:168}")
+    private int maxWindowsPerRun;
+
+    @Value("${tracking.history.delete-batch-size:10000}")
+    private int deleteBatchSize;
+
+    @Scheduled(initialDelayString = "${tracking.history.maintenance-interval-ms:600000}",
+            fixedDelayString = "${tracking.history.maintenance-interval-ms:600000}")
+    public void run() {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(lockKey, token, Duration.ofMillis(lockTtlMs));
+            if (!Boolean.TRUE.equals(locked)) {
+                log.debug("Location history maintenance is running on another node");
+                return;
+            }
+            purgeExpired();
+            downsample(token);
+        } catch (Exception e) {
+            log.error("Location history maintenance failed", e);
+        } finally {
+            try {
+                stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey), token);
+            } catch (Exception e) {
+                log.warn("Failed to release the history maintenance lock, it expires in {} ms", lockTtlMs, e);
+            }
+        }
+    }
+
+    private void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        long total = 0;
+        int deleted;
+        do {
+            deleted = historyRepository.deleteOlderThan(cutoff, deleteBatchSize);
+            total += deleted;
+        } while (deleted == deleteBatchSize);
+        if (total > 0) {
+            log.info("Deleted {} locations older than {}", total, cutoff);
+        }
+    }
+
+    private void downsample(String token) {
+        // Window edges sit on whole minutes so no minute is split across two windows
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime limit = now.minusHours(downsampleAfterHours);
+        LocalDateTime retainedFrom = now.minusDays(retentionDays);
+        LocalDateTime downsampledUntil = loadWatermark();
+        if (downsampledUntil == null || downsampledUntil.isBefore(retainedFrom)) {
+            downsampledUntil = retainedFrom;
+        }
+
+        Duration window = Duration.ofMinutes(windowMinutes);
+        long total = 0;
+
+        // Thinning is idempotent, so going over the trailing range again only removes the
+        // late fixes that arrived after it was first thinned
+        LocalDateTime rescanFrom = downsampledUntil.minusHours(lateFixRescanHours);
+        if (rescanFrom.isBefore(retainedFrom)) {
+            rescanFrom = retainedFrom;
+        }
+        while (rescanFrom.isBefore(downsampledUntil)) {
+            LocalDateTime to = rescanFrom.plus(window);
+            if (to.isAfter(downsampledUntil)) {
+                to = downsampledUntil;
+            }
+            total += historyRepository.downsample(rescanFrom, to);
+            rescanFrom = to;
+            extendLock(token);
+        }
+
+        for (int i = 0; i < maxWindowsPerRun && downsampledUntil.isBefore(limit); i++) {
+            LocalDateTime to = downsampledUntil.plus(window);
+            if (to.isAfter(limit)) {
+                to = limit;
+            }
+            total += historyRepository.downsample(downsampledUntil, to);
+            downsampledUntil = to;
+            extendLock(token);
+            storeWatermark(downsampledUntil);
+        }
+        if (total > 0) {
+            log.info("Downsampled locations up to {}, removed {} fixes", downsampledUntil, total);
+        }
+    }
+
+    private void extendLock(String token) {
+        Long extended = stringRedisTemplate.execute(EXTEND_SCRIPT, List.of(lockKey), token, Long.toString(lockTtlMs));
+        if (extended == null || extended == 0) {
+            // Another node may have started a run of its own; stop before both write the watermark
+            throw new IllegalStateException("Lost the history maintenance lock");
+        }
+    }
+
+    private LocalDateTime loadWatermark() {
+        String stored = stringRedisTemplate.opsForValue().get(downsampledUntilKey);
+        if (stored == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(stored)), ZoneId.systemDefault());
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring unreadable downsample watermark {}", stored);
+            return null;
+        }
+    }
+
+    private void storeWatermark(LocalDateTime downsampledUntil) {
+        long millis = downsampledUntil.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        stringRedisTemplate.opsForValue().set(downsampledUntilKey, Long.toString(millis));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.trackingservice.history;
+
+/**
+ * Encoded polyline format (precision 1e-5) as understood by Google Maps, Mapbox, Leaflet
+ * plugins and most other map SDKs: each coordinate is the zig-zag varint of its delta to
+ * the previous one, written as printable ASCII, so a point typically costs 4-8 bytes.
+ */
+public final class PolylineEncoder {
+
+    private PolylineEncoder() {
+    }
+
+    public static String encode(double[] latitudes, double[] longitudes, boolean[] keep) {
+        StringBuilder encoded = new StringBuilder();
+        long previousLat = 0;
+        long previousLng = 0;
+        for (int i = 0; i < keep.length; i++) {
+            if (!keep[i]) {
+                continue;
+            }
+            long lat = Math.round(latitudes[i] * 1e5);
+            long lng = Math.round(longitudes[i] * 1e5);
+            encodeValue(lat - previousLat, encoded);
+            encodeValue(lng - previousLng, encoded);
+            previousLat = lat;
+            previousLng = lng;
+        }
+        return encoded.toString();
+    }
+
+    private static void encodeValue(long delta, StringBuilder encoded) {
+        long value = delta < 0 ? ~(delta << 1) : delta << 1;
+        while (value >= 0x20) {
+            encoded.append((char) ((0x20 | (value & 0x1f)) + 63));
+            value >>= 5;
+        }
+        encoded.append((char) (value + 63));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.trackingservice.history;
+
+import com.example.trackingservice.geo.GeoUtils;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Douglas-Peucker simplification with a tolerance in meters. Points are projected onto a
+ * local equirectangular plane around the first point, which is accurate to well under a
+ * meter over city-sized trails. The segment stack is explicit, so long trails cannot
+ * overflow the call stack.
+ */
+public final class TrajectorySimplifier {
+
+    private TrajectorySimplifier() {
+    }
+
+    /**
+     * @return for each input point, whether it is kept; the first and last are always kept
+     */
+    public static boolean[] simplify(double[] latitudes, double[] longitudes, int size, double toleranceMeters) {
+        boolean[] keep = new boolean[size];
+        if (size <= 2) {
+            Arrays.fill(keep, true);
+            return keep;
+        }
+
+        double metersPerDegreeLat = GeoUtils.KM_PER_DEGREE_LAT * 1000.0;
+        double metersPerDegreeLng = metersPerDegreeLat * Math.cos(Math.toRadians(latitudes[0]));
+        double[] x = new double[size];
+        double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            x[i] = (longitudes[i] - longitudes[0]) * metersPerDegreeLng;
+            y[i] = (latitudes[i] - latitudes[0]) * metersPerDegreeLat;
+        }
+
+        keep[0] = true;
+        keep[size - 1] = true;
+        Deque<int[]> segments = new ArrayDeque<>();
+        segments.push(new int[]{0, size - 1});
+        while (!segments.isEmpty()) {
+            int[] segment = segments.pop();
+            int start = segment[0];
+            int end = segment[1];
+
+            int farthest = -1;
+            double maxDistance = toleranceMeters;
+            for (int i = start + 1; i < end; i++) {
+                double distance = distanceToSegment(x[i], y[i], x[start], y[start], x[end], y[end]);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+
+            if (farthest >= 0) {
+                keep[farthest] = true;
+                segments.push(new int[]{start, farthest});
+                segments.push(new int[]{farthest, end});
+            }
+        }
+        return keep;
+    }
+
+    private static double distanceToSegment(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        if (lengthSquared == 0) {
+            return Math.hypot(px - ax, py - ay);
+        }
+        double t = Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        return Math.hypot(px - (ax + t * dx), py - (ay + t * dy));
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.trackingservice.ingest;
+
+import com.example.trackingservice.geo.GeoUtils;
+import com.example.trackingservice.model.Location;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Orders the fixes of each driver before they are queued. Fixes are ordered by device
+ * time; the device sequence number, when the app sends one, only identifies retries.
+ * Per driver only the latest device time, the last few sequence numbers and times seen
+ * and the last accepted position are kept, roughly 300 bytes each.
+ * <ul>
+ *   <li>A fix stamped more than {@code tracking.ingest.max-future-skew-ms} ahead of server
+ *       time gets the server time instead. Otherwise one fix from a wrong device clock
+ *       would make every genuine fix after it look late.</li>
+ *   <li>A sequence number (or, without one, a device time) seen recently is a retried
+ *       upload and is dropped.</li>
+ *   <li>A fix older than the latest is a late fix: it is stored for history but marked
+ *       {@link Location#isOutOfOrder()}, so it never replaces the current position.</li>
+ *   <li>A newer fix less than {@code tracking.ingest.min-movement-m} from the last accepted
+ *       one is dropped unless {@code tracking.ingest.stationary-interval-ms} has passed, so
+ *       a parked phone reports a heartbeat instead of a stream of identical rows.</li>
+ * </ul>
+ * State only advances for fixes the queue actually took, so a fix rejected with 503 is
+ * not mistaken for a duplicate when the device resends it. Fixes are classified under the
+ * driver's lock but queued outside it, so a full queue never holds up other submissions
+ * for the driver. While a fix is being queued its key is reserved, so a concurrent retry
+ * of it is still dropped.
+ */
+@Component
+@RequiredArgsConstructor
+public class FixSequencer {
+
+    private static final int RECENT_KEYS = 16;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${tracking.ingest.min-movement-m:5}")
+    private double minMovementMeters;
+
+    @Value("${tracking.ingest.stationary-interval-ms:30000}")
+    private long stationaryIntervalMs;
+
+    @Value("${tracking.ingest.max-future-skew-ms:60000}")
+    private long maxFutureSkewMs;
+
+    private final Map<String, DriverState> drivers = new ConcurrentHashMap<>();
+
+    private Counter duplicates;
+    private Counter outOfOrder;
+    private Counter stationary;
+    private Counter clamped;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("tracking.ingest.sequencer.drivers", drivers, Map::size)
+                .description("Drivers with sequencing state")
+                .register(meterRegistry);
+        duplicates = counter("duplicate");
+        outOfOrder = counter("out_of_order");
+        stationary = counter("stationary");
+        clamped = counter("clamped");
+    }
+
+    /**
+     * Filters the fixes of one driver, hands the rest to {@code enqueue} in order and
+     * records only the ones it accepted.
+     *
+     * @param enqueue queues fixes in order and returns how many it took
+     */
+    public Admission submit(String driverId, List<Location> fixes, ToIntFunction<List<Location>> enqueue) {
+        DriverState state = drivers.computeIfAbsent(driverId, id -> new DriverState());
+        List<Location> admitted = new ArrayList<>(fixes.size());
+        List<Long> keys = new ArrayList<>(fixes.size());
+        synchronized (state) {
+            // Classify against a scratch copy so fixes of the same batch see each other
+            DriverState scratch = state.copy();
+            for (Location fix : fixes) {
+                Long key = classify(scratch, state, fix);
+                if (key != null) {
+                    scratch.record(fix, key);
+                    state.reserve(fix, key);
+                    admitted.add(fix);
+                    keys.add(key);
+                }
+            }
+        }
+
+        int accepted = 0;
+        try {
+            accepted = admitted.isEmpty() ? 0 : enqueue.applyAsInt(admitted);
+        } finally {
+            synchronized (state) {
+                for (int i = 0; i < admitted.size(); i++) {
+                    Location fix = admitted.get(i);
+                    state.release(fix, keys.get(i));
+                    if (i < accepted) {
+                        if (fix.isOutOfOrder()) {
+                            outOfOrder.increment();
+                        }
+                        state.record(fix, keys.get(i));
+                    }
+                }
+            }
+        }
+        return new Admission(fixes.size() - admitted.size(), accepted, admitted.size() - accepted);
+    }
+
+    /**
+     * Drops the state of a driver that went offline, keeping the map bounded by active drivers.
+     */
+    public void forget(String driverId) {
+        drivers.remove(driverId);
+    }
+
+    // Clamps future fixes and marks late ones; returns the fix's retry key, or null for
+    // fixes that should not be stored at all
+    private Long classify(DriverState scratch, DriverState state, Location fix) {
+        long time = epochMillis(fix);
+        // Keyed on the time as sent, so a retry of a clamped fix is still recognised
+        long key = fix.getSequence() != null ? fix.getSequence() : time;
+        boolean seen = fix.getSequence() != null
+                ? scratch.recentSequences.contains(key) || state.pendingSequences.contains(key)
+                : scratch.recentTimes.contains(key) || state.pendingTimes.contains(key);
+        if (seen) {
+            duplicates.increment();
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (time > now + maxFutureSkewMs) {
+            clamped.increment();
+            fix.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneId.systemDefault()));
+            time = now;
+        }
+        if (scratch.initialized && time < scratch.latestTime) {
+            fix.setOutOfOrder(true);
+            return key;
+        }
+        if (scratch.initialized && time - scratch.latestTime < stationaryIntervalMs
+                && GeoUtils.haversineKm(scratch.latitude, scratch.longitude, fix.getLatitude(), fix.getLongitude()) * 1000 < minMovementMeters) {
+            stationary.increment();
+            return null;
+        }
+        return key;
+    }
+
+    private static long epochMillis(Location fix) {
+        return fix.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private Counter counter(String result) {
+        return Counter.builder("tracking.ingest.sequencer.filtered")
+                .description("Fixes classified by the sequencer; out_of_order fixes are kept for history only")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Outcome for one submission. Rejected fixes were turned away by a full queue and
+     * should be resent; dropped ones are retries or stationary repeats.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Admission {
+        private final int dropped;
+        private final int accepted;
+        private final int rejected;
+    }
+
+    private static final class DriverState {
+        private final RecentKeys recentSequences;
+        private final RecentKeys recentTimes;
+        // Keys of fixes being queued right now; never copied into a scratch state
+        private final Set<Long> pendingSequences = new HashSet<>();
+        private final Set<Long> pendingTimes = new HashSet<>();
+        private boolean initialized;
+        private long latestTime;
+        private double latitude;
+        private double longitude;
+
+        private DriverState() {
+            this(new RecentKeys(), new RecentKeys());
+        }
+
+        private DriverState(RecentKeys recentSequences, RecentKeys recentTimes) {
+            this.recentSequences = recentSequences;
+            this.recentTimes = recentTimes;
+        }
+
+        private DriverState copy() {
+            DriverState copy = new DriverState(recentSequences.copy(), recentTimes.copy());
+            copy.initialized = initialized;
+            copy.latestTime = latestTime;
+            copy.latitude = latitude;
+            copy.longitude = longitude;
+            return copy;
+        }
+
+        private void record(Location fix, long key) {
+            if (fix.getSequence() != null) {
+                recentSequences.add(key);
+            } else {
+                recentTimes.add(key);
+            }
+            if (fix.isOutOfOrder()) {
+                return;
+            }
+            long time = epochMillis(fix);
+            // A concurrent submission may have recorded a newer fix while this one was queued
+            if (initialized && time < latestTime) {
+                return;
+            }
+            initialized = true;
+            latestTime = time;
+            latitude = fix.getLatitude();
+            longitude = fix.getLongitude();
+        }
+
+        private void reserve(Location fix, long key) {
+            (fix.getSequence() != null ? pendingSequences : pendingTimes).add(key);
+        }
+
+        private void release(Location fix, long key) {
+            (fix.getSequence() != null ? pendingSequences : pendingTimes).remove(key);
+        }
+    }
+
+    private static final class RecentKeys {
+        private final long[] keys = new long[RECENT_KEYS];
+        private int count;
+        private int next;
+
+        private boolean contains(long key) {
+            for (int i = 0; i < count; i++) {
+                if (keys[i] == key) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void add(long key) {
+            keys[next] = key;
+            next = (next + 1) % RECENT_KEYS;
+            count = Math.min(count + 1, RECENT_KEYS);
+        }
+
+        private RecentKeys copy() {
+            RecentKeys copy = new RecentKeys();
+            System.arraycopy(keys, 0, copy.keys, 0, RECENT_KEYS);
+            copy.count = count;
+            copy.next = next;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.trackingservice.ingest;
+
+import com.example.trackingservice.model.Location;
+import com.example.trackingservice.model.TrackingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decoder for the binary fix batch a device uploads to {@code POST /api/tracking/location/batch}
+ * ({@code application/octet-stream}, big-endian):
+ * <pre>
+ * u8   version (1)
+ * u16  driverId length, then UTF-8 bytes
+ * u16  orderId length (0 = no order), then UTF-8 bytes
+ * u16  number of fixes, then per fix:
+ *   i64  device time, epoch millis
+ *   i32  latitude  * 1e7
+ *   i32  longitude * 1e7
+ *   u8   flags: 1 altitude, 2 speed, 4 heading, 8 accuracy, 16 sequence
+ *   f32  each flagged value among the first four, in flag order
+ *   u32  device sequence number, if flagged
+ * </pre>
+ * A fix is 17 to 37 bytes. The ids are sent once per batch, and decoding reads the
+ * request bytes in place with no intermediate tree or strings per fix.
+ */
+public final class LocationBatchCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final int HAS_ALTITUDE = 1;
+    private static final int HAS_SPEED = 1 << 1;
+    private static final int HAS_HEADING = 1 << 2;
+    private static final int HAS_ACCURACY = 1 << 3;
+    private static final int HAS_SEQUENCE = 1 << 4;
+    private static final double COORDINATE_SCALE = 1e7;
+
+    private LocationBatchCodec() {
+    }
+
+    public static DecodedBatch decode(byte[] payload, int maxFixes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            if (buffer.get() != VERSION) {
+                throw invalid("Unsupported batch version");
+            }
+            String driverId = readString(buffer);
+            if (driverId == null) {
+                throw invalid("Driver ID is required");
+            }
+            String orderId = readString(buffer);
+            int count = Short.toUnsignedInt(buffer.getShort());
+            if (count > maxFixes) {
+                throw invalid("Batch holds more than " + maxFixes + " fixes");
+            }
+
+            ZoneId zone = ZoneId.systemDefault();
+            List<Location> fixes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long deviceTime = buffer.getLong();
+                double latitude = buffer.getInt() / COORDINATE_SCALE;
+                double longitude = buffer.getInt() / COORDINATE_SCALE;
+                int flags = buffer.get() & 0xff;
+                if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+                    throw invalid("Fix " + i + " is out of range");
+                }
+                fixes.add(Location.builder()
+                        .driverId(driverId)
+                        .orderId(orderId)
+                        .latitude(latitude)
+                        .longitude(longitude)
+                        .altitude((flags & HAS_ALTITUDE) != 0 ? readFloat(buffer, i) : null)
+                        .speed((flags & HAS_SPEED) != 0 ? readFloat(buffer, i) : null)
+                        .heading((flags & HAS_HEADING) != 0 ? readFloat(buffer, i) : null)
+                        .accuracy((flags & HAS_ACCURACY) != 0 ? readFloat(buffer, i) : null)
+                        .sequence((flags & HAS_SEQUENCE) != 0 ? Integer.toUnsignedLong(buffer.getInt()) : null)
+                        .timestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(deviceTime), zone))
+                        .status(TrackingStatus.ACTIVE)
+                        .build());
+            }
+            if (buffer.hasRemaining()) {
+                throw invalid("Unexpected trailing bytes");
+            }
+            return new DecodedBatch(driverId, orderId, fixes);
+        } catch (BufferUnderflowException e) {
+            throw invalid("Truncated batch");
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length == 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw invalid("Truncated batch");
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    // NaN or infinite extras would poison speed averages downstream
+    private static Double readFloat(ByteBuffer buffer, int fix) {
+        float value = buffer.getFloat();
+        if (!Float.isFinite(value)) {
+            throw invalid("Fix " + fix + " has a non-finite value");
+        }
+        return (double) value;
+    }
+
+    private static ResponseStatusException invalid(String reason) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, reason);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class DecodedBatch {
+        private final String driverId;
+        private final String orderId;
+        private final List<Location> fixes;
+    }
+}
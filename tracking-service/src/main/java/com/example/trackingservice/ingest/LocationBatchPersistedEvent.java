@@ -0,0 +1,17 @@
+package com.example.trackingservice.ingest;
+
+import com.example.trackingservice.model.Location;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published on the ingestion flusher thread after a batch of fixes has been written
+ * to the {@code locations} table. Listeners run synchronously on that thread.
+ */
+@Getter
+@AllArgsConstructor
+public class LocationBatchPersistedEvent {
+    private final List<Location> locations;
+}
@@ -0,0 +1,166 @@
+package com.example.trackingservice.ingest;
+
+import com.example.trackingservice.model.Location;
+import com.example.trackingservice.repository.LocationBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers incoming GPS fixes in a bounded queue and writes them to the database in
+ * JDBC batches from a single flusher thread, so the request thread only pays for an
+ * enqueue. When the queue is full, {@link #submit(Location)} waits up to the configured
+ * offer timeout and then rejects the fix, which pushes back on the caller instead of
+ * growing the heap.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LocationIngestionPipeline {
+
+    private final LocationBatchRepository batchRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${tracking.ingest.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${tracking.ingest.batch-size:500}")
+    private int batchSize;
+
+    @Value("${tracking.ingest.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${tracking.ingest.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    private BlockingQueue<Location> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private Timer flushLatency;
+    private DistributionSummary flushSize;
+    private Counter rejected;
+    private Counter failed;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("tracking.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("GPS fixes waiting to be flushed")
+                .register(meterRegistry);
+        flushLatency = Timer.builder("tracking.ingest.flush.latency")
+                .description("Time spent writing one batch of GPS fixes")
+                .register(meterRegistry);
+        flushSize = DistributionSummary.builder("tracking.ingest.flush.size")
+                .description("Number of GPS fixes written per batch")
+                .register(meterRegistry);
+        rejected = Counter.builder("tracking.ingest.rejected")
+                .description("GPS fixes rejected because the queue was full")
+                .register(meterRegistry);
+        failed = Counter.builder("tracking.ingest.failed")
+                .description("GPS fixes lost because a batch write failed")
+                .register(meterRegistry);
+
+        running = true;
+        flusher = new Thread(this::runFlushLoop, "location-ingest-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Location ingestion pipeline started (capacity={}, batchSize={})", queueCapacity, batchSize);
+    }
+
+    /**
+     * Enqueues a fix for persistence.
+     *
+     * @return {@code false} if the queue stayed full for the whole offer timeout
+     */
+    public boolean submit(Location location) {
+        try {
+            if (queue.offer(location, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Enqueues fixes in order until one of them is rejected.
+     *
+     * @return how many fixes were accepted; the remaining ones are dropped
+     */
+    public int submitAll(List<Location> locations) {
+        for (int i = 0; i < locations.size(); i++) {
+            if (!submit(locations.get(i))) {
+                rejected.increment(locations.size() - i - 1);
+                return i;
+            }
+        }
+        return locations.size();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        log.info("Location ingestion pipeline stopped, {} fixes left unflushed", queue.size());
+    }
+
+    private void runFlushLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Location first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Location> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Unexpected error in location flush loop", e);
+            }
+        }
+    }
+
+    private void flush(List<Location> batch) {
+        long start = System.nanoTime();
+        try {
+            batchRepository.insertAll(batch);
+        } catch (Exception e) {
+            failed.increment(batch.size());
+            log.error("Failed to persist batch of {} locations", batch.size(), e);
+            return;
+        } finally {
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        flushSize.record(batch.size());
+
+        try {
+            eventPublisher.publishEvent(new LocationBatchPersistedEvent(batch));
+        } catch (Exception e) {
+            log.error("Error handling persisted location batch", e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.trackingservice.ingest;
+
+import com.example.trackingservice.repository.OrderTrackingBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for {@code order_tracking.current_latitude/current_longitude}. Only the
+ * latest position per order is held, and dirty orders are written by a periodic flush as
+ * one JDBC batch, so an order reporting every few seconds costs one UPDATE per flush
+ * interval instead of a read and a full-entity save per fix. Readers overlay
+ * {@link #get(String)} on what they load so they never see an older position than was
+ * accepted. Status changes do not go through here and are still written immediately.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderPositionBuffer {
+
+    private final OrderTrackingBatchRepository batchRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, PendingPosition> pending = new ConcurrentHashMap<>();
+
+    private Counter received;
+    private Counter written;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("tracking.order-position.pending", pending, Map::size)
+                .description("Orders with a position not yet written")
+                .register(meterRegistry);
+        received = Counter.builder("tracking.order-position.received")
+                .description("Order position updates accepted")
+                .register(meterRegistry);
+        written = Counter.builder("tracking.order-position.written")
+                .description("Order rows updated by flushes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the buffered position
+     */
+    public PendingPosition update(String orderId, double latitude, double longitude) {
+        PendingPosition position = new PendingPosition(latitude, longitude, LocalDateTime.now());
+        pending.put(orderId, position);
+        received.increment();
+        return position;
+    }
+
+    /**
+     * @return the position waiting to be written for this order, or {@code null}
+     */
+    public PendingPosition get(String orderId) {
+        return pending.get(orderId);
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.order-position.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, PendingPosition> batch = new HashMap<>(pending);
+        try {
+            batchRepository.updatePositions(batch);
+        } catch (Exception e) {
+            // Entries stay pending and go out with the next flush
+            log.error("Failed to flush {} order positions", batch.size(), e);
+            return;
+        }
+        // Keep anything that changed while the batch was being written
+        batch.forEach(pending::remove);
+        written.increment(batch.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class PendingPosition {
+        private final double latitude;
+        private final double longitude;
+        private final LocalDateTime updatedAt;
+    }
+}
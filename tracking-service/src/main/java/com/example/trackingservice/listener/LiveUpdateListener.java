@@ -0,0 +1,70 @@
+package com.example.trackingservice.listener;
+
+import com.example.trackingservice.dto.LocationResponse;
+import com.example.trackingservice.dto.OrderTrackingResponse;
+import com.example.trackingservice.realtime.LiveUpdateFanout;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cross-node fan-out for {@code tracking.fanout.mode=kafka}. Every instance has to see
+ * every update to serve its own subscribers, so each one joins its own consumer group
+ * and starts from the latest offset. These groups commit no offsets (see
+ * {@code KafkaConfig#broadcastListenerContainerFactory}), so a restarted instance leaves
+ * no orphaned group behind.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.fanout.mode", havingValue = "kafka")
+@RequiredArgsConstructor
+@Slf4j
+public class LiveUpdateListener {
+
+    private final LiveUpdateFanout liveUpdateFanout;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(
+            topics = "${tracking.kafka.topics.location-updates}",
+            groupId = "tracking-fanout-${random.uuid}",
+            containerFactory = "broadcastListenerContainerFactory",
+            properties = {"auto.offset.reset=latest", "enable.auto.commit=false"})
+    public void onLocationUpdate(String message) {
+        try {
+            LocationResponse location = objectMapper.readValue(message, LocationResponse.class);
+            liveUpdateFanout.deliver(LiveUpdateFanout.LOCATION_DESTINATION + location.getDriverId(), location);
+        } catch (Exception e) {
+            log.error("Error fanning out location update: {}", message, e);
+        }
+    }
+
+    @KafkaListener(
+            topics = "${tracking.kafka.topics.delivery-status}",
+            groupId = "tracking-fanout-${random.uuid}",
+            containerFactory = "broadcastListenerContainerFactory",
+            properties = {"auto.offset.reset=latest", "enable.auto.commit=false"})
+    public void onDeliveryStatus(String message) {
+        try {
+            OrderTrackingResponse tracking = objectMapper.readValue(message, OrderTrackingResponse.class);
+            liveUpdateFanout.deliverInOrder(LiveUpdateFanout.ORDER_DESTINATION + tracking.getOrderId(), tracking);
+        } catch (Exception e) {
+            log.error("Error fanning out delivery status update: {}", message, e);
+        }
+    }
+
+    @KafkaListener(
+            topics = "${tracking.kafka.topics.order-locations}",
+            groupId = "tracking-fanout-${random.uuid}",
+            containerFactory = "broadcastListenerContainerFactory",
+            properties = {"auto.offset.reset=latest", "enable.auto.commit=false"})
+    public void onOrderLocation(String message) {
+        try {
+            OrderTrackingResponse tracking = objectMapper.readValue(message, OrderTrackingResponse.class);
+            liveUpdateFanout.deliver(LiveUpdateFanout.ORDER_DESTINATION + tracking.getOrderId(), tracking);
+        } catch (Exception e) {
+            log.error("Error fanning out order location update: {}", message, e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.trackingservice.listener;
+
+import com.example.trackingservice.dto.OrderTrackingResponse;
+import com.example.trackingservice.eta.EtaEngine;
+import com.example.trackingservice.geofence.GeofenceEngine;
+import com.example.trackingservice.model.DeliveryStatus;
+import com.example.trackingservice.model.Location;
+import com.example.trackingservice.model.OrderTracking;
+import com.example.trackingservice.repository.OrderTrackingRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps this node's {@link EtaEngine} and {@link GeofenceEngine} in step with orders
+ * changed on other nodes. A status change on the delivery-status topic reloads the order,
+ * so the engines see the row as it is now rather than as it was published. Creating an
+ * order publishes nothing, so the in-flight orders of a reporting driver are also loaded
+ * on demand, at most once per {@code tracking.orders.driver-reload-seconds}. Like the
+ * fan-out listener, every instance joins its own consumer group and starts from the
+ * latest offset.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderStateListener {
+
+    private static final Set<DeliveryStatus> IN_FLIGHT = EnumSet.of(
+            DeliveryStatus.ASSIGNED, DeliveryStatus.PICKED_UP, DeliveryStatus.IN_TRANSIT, DeliveryStatus.OUT_FOR_DELIVERY);
+
+    private final OrderTrackingRepository orderTrackingRepository;
+    private final EtaEngine etaEngine;
+    private final GeofenceEngine geofenceEngine;
+    private final ObjectMapper objectMapper;
+
+    @Value("${tracking.orders.driver-reload-seconds:30}")
+    private long driverReloadSeconds;
+
+    private final Map<String, Long> driverLoadedAt = new ConcurrentHashMap<>();
+
+    @KafkaListener(
+            topics = "${tracking.kafka.topics.delivery-status}",
+            groupId = "tracking-orders-${random.uuid}",
+            containerFactory = "broadcastListenerContainerFactory",
+            properties = {"auto.offset.reset=latest", "enable.auto.commit=false"})
+    public void onDeliveryStatus(String message) {
+        try {
+            OrderTrackingResponse tracking = objectMapper.readValue(message, OrderTrackingResponse.class);
+            orderTrackingRepository.findByOrderId(tracking.getOrderId()).ifPresent(this::track);
+        } catch (Exception e) {
+            log.error("Error applying delivery status update: {}", message, e);
+        }
+    }
+
+    /**
+     * Loads the in-flight orders of the drivers in a batch of fixes, skipping drivers
+     * loaded recently. Called from the ingestion flusher thread before the engines see the
+     * fixes.
+     */
+    public void loadOrdersOf(List<Location> fixes) {
+        long now = System.currentTimeMillis();
+        long reloadMs = driverReloadSeconds * 1000;
+        Set<String> due = new HashSet<>();
+        for (Location fix : fixes) {
+            Long loadedAt = driverLoadedAt.get(fix.getDriverId());
+            if (loadedAt == null || now - loadedAt > reloadMs) {
+                due.add(fix.getDriverId());
+            }
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        try {
+            orderTrackingRepository.findByDriverIdInAndStatusIn(due, IN_FLIGHT).forEach(this::track);
+            due.forEach(driverId -> driverLoadedAt.put(driverId, now));
+        } catch (Exception e) {
+            // Retried with the next fix of these drivers
+            log.error("Failed to load in-flight orders of {} drivers", due.size(), e);
+        }
+    }
+
+    /**
+     * Forgets when a driver's orders were loaded, e.g. once the driver has gone offline.
+     */
+    public void forgetDriver(String driverId) {
+        driverLoadedAt.remove(driverId);
+    }
+
+    private void track(OrderTracking tracking) {
+        etaEngine.track(tracking);
+        geofenceEngine.track(tracking);
+    }
+}
@@ -9,7 +9,11 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "locations")
+@Table(name = "locations", indexes = {
+        @Index(name = "idx_locations_driver_time", columnList = "driver_id, timestamp, id"),
+        @Index(name = "idx_locations_order_time", columnList = "order_id, timestamp, id"),
+        @Index(name = "idx_locations_time", columnList = "timestamp")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -54,6 +58,14 @@ public class Location {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
+    // Older than the driver's latest fix; stored for history but never the current position
+    @Transient
+    private boolean outOfOrder;
+    
+    // Per-driver counter from the device, only used to recognise retried uploads
+    @Transient
+    private Long sequence;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
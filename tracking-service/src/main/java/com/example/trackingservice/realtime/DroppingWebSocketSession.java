@@ -0,0 +1,121 @@
+package com.example.trackingservice.realtime;
+
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Outbound session with a bounded send buffer that drops its oldest frames once a client
+ * falls more than {@code bufferSizeLimit} bytes behind, and counts each dropped frame.
+ * It works like a {@code ConcurrentWebSocketSessionDecorator} with
+ * {@code OverflowStrategy.DROP}. That class does not report what it drops, so this one
+ * replaces it rather than wrapping it. A send that blocks longer than
+ * {@code sendTimeLimitMs} still closes the session, because dropping frames does not
+ * free a stalled socket.
+ */
+@Slf4j
+public class DroppingWebSocketSession extends WebSocketSessionDecorator {
+
+    private final int sendTimeLimitMs;
+    private final int bufferSizeLimit;
+    private final Counter droppedFrames;
+
+    private final Queue<WebSocketMessage<?>> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger bufferSize = new AtomicInteger();
+    private final Lock flushLock = new ReentrantLock();
+    private final Lock closeLock = new ReentrantLock();
+    private volatile long sendStartTime;
+    private volatile boolean closing;
+
+    public DroppingWebSocketSession(WebSocketSession delegate, int sendTimeLimitMs, int bufferSizeLimit,
+                                    Counter droppedFrames) {
+        super(delegate);
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.droppedFrames = droppedFrames;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (closing || !isOpen()) {
+            return;
+        }
+        buffer.add(message);
+        bufferSize.addAndGet(message.getPayloadLength());
+
+        // Whoever holds the flush lock sends for everyone; the others only enforce the limits
+        do {
+            if (!tryFlush()) {
+                checkLimits();
+                return;
+            }
+        } while (!buffer.isEmpty() && !closing);
+    }
+
+    private boolean tryFlush() throws IOException {
+        if (!flushLock.tryLock()) {
+            return false;
+        }
+        try {
+            WebSocketMessage<?> message;
+            while (!closing && (message = buffer.poll()) != null) {
+                bufferSize.addAndGet(-message.getPayloadLength());
+                sendStartTime = System.currentTimeMillis();
+                getDelegate().sendMessage(message);
+                sendStartTime = 0;
+            }
+        } finally {
+            sendStartTime = 0;
+            flushLock.unlock();
+        }
+        return true;
+    }
+
+    private void checkLimits() {
+        if (closing || !closeLock.tryLock()) {
+            return;
+        }
+        try {
+            long started = sendStartTime;
+            if (started > 0 && System.currentTimeMillis() - started > sendTimeLimitMs) {
+                closing = true;
+                log.debug("Closing WebSocket session {} after a send blocked for more than {} ms",
+                        getId(), sendTimeLimitMs);
+                getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+                return;
+            }
+            int dropped = 0;
+            while (bufferSize.get() > bufferSizeLimit) {
+                WebSocketMessage<?> oldest = buffer.poll();
+                if (oldest == null) {
+                    break;
+                }
+                bufferSize.addAndGet(-oldest.getPayloadLength());
+                dropped++;
+            }
+            if (dropped > 0) {
+                droppedFrames.increment(dropped);
+            }
+        } catch (IOException e) {
+            log.debug("Failed to close slow WebSocket session {}", getId(), e);
+        } finally {
+            closeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close(CloseStatus status) throws IOException {
+        closing = true;
+        super.close(status);
+    }
+}
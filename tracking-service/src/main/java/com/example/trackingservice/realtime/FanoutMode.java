@@ -0,0 +1,16 @@
+package com.example.trackingservice.realtime;
+
+/**
+ * How live updates reach WebSocket subscribers ({@code tracking.fanout.mode}).
+ */
+public enum FanoutMode {
+    /** In-memory simple broker; subscribers only see updates handled by their own node. */
+    LOCAL,
+    /**
+     * In-memory simple broker fed from the location-updates and delivery-status topics,
+     * which every node consumes in full. Any node can serve any subscriber.
+     */
+    KAFKA,
+    /** External STOMP broker (e.g. RabbitMQ with the STOMP plugin) shared by all nodes. */
+    RELAY
+}
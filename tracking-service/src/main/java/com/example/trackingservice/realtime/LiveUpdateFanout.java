@@ -0,0 +1,196 @@
+package com.example.trackingservice.realtime;
+
+import com.example.trackingservice.dto.LocationResponse;
+import com.example.trackingservice.dto.OrderTrackingResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conflating fan-out to STOMP subscribers. {@link #publish} only records the payload as
+ * the latest one for its destination. A single dispatcher thread sends whatever is pending
+ * once per {@code tracking.fanout.tick-ms}, so a driver reporting faster than that
+ * produces one frame per tick and callers never wait on the broker or a slow client.
+ * Status changes are the exception: each one is a transition a subscriber must not miss,
+ * so they go through {@link #deliverInOrder} and are all sent, in order, ahead of the
+ * conflated frames of the same tick.
+ * <p>
+ * Metrics are tagged by destination family (the segment after {@code /topic/}), not by the
+ * full destination, to keep tag cardinality bounded:
+ * {@code tracking.fanout.latency} (publish to hand-off to the broker),
+ * {@code tracking.fanout.conflated} (frames replaced before they were sent) and
+ * {@code tracking.fanout.failed}.
+ * <p>
+ * Services report updates through {@link #publishLocation}, {@link #publishOrderStatus} and
+ * {@link #publishOrderLocation}. {@code tracking.fanout.mode} decides where those go. In
+ * {@code kafka} mode, updates that are also written to Kafka are skipped here, because
+ * every node, this one included, gets them back from the topic through
+ * {@link #deliver}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LiveUpdateFanout {
+
+    public static final String LOCATION_DESTINATION = "/topic/location/";
+    public static final String ORDER_DESTINATION = "/topic/order/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${tracking.fanout.tick-ms:100}")
+    private long tickMs;
+
+    @Value("${tracking.fanout.mode:local}")
+    private FanoutMode mode;
+
+    private final Map<String, PendingFrame> pending = new ConcurrentHashMap<>();
+    private final Queue<QueuedFrame> ordered = new ConcurrentLinkedQueue<>();
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+    private ScheduledExecutorService dispatcher;
+
+    @PostConstruct
+    public void start() {
+        dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "live-update-fanout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleAtFixedRate(this::dispatch, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * A fix persisted on this node.
+     */
+    public void publishLocation(LocationResponse location) {
+        if (mode != FanoutMode.KAFKA) {
+            deliver(LOCATION_DESTINATION + location.getDriverId(), location);
+        }
+    }
+
+    /**
+     * A status change, which is also published to the delivery-status topic.
+     */
+    public void publishOrderStatus(OrderTrackingResponse tracking) {
+        if (mode != FanoutMode.KAFKA) {
+            deliverInOrder(ORDER_DESTINATION + tracking.getOrderId(), tracking);
+        }
+    }
+
+    /**
+     * An order position change, which is also published to the order-locations topic.
+     */
+    public void publishOrderLocation(OrderTrackingResponse tracking) {
+        if (mode != FanoutMode.KAFKA) {
+            deliver(ORDER_DESTINATION + tracking.getOrderId(), tracking);
+        }
+    }
+
+    /**
+     * Queues a frame for the next tick, replacing any frame still pending for the destination.
+     */
+    public void deliver(String destination, Object payload) {
+        PendingFrame previous = pending.put(destination, new PendingFrame(payload, System.nanoTime()));
+        if (previous != null) {
+            metersFor(destination).conflated.increment();
+        }
+    }
+
+    /**
+     * Queues a frame that is never replaced; frames queued this way go out in the order
+     * they were queued. A conflated frame still pending for the destination is older than
+     * this one and is discarded, so it cannot follow it out.
+     */
+    public void deliverInOrder(String destination, Object payload) {
+        if (pending.remove(destination) != null) {
+            metersFor(destination).conflated.increment();
+        }
+        ordered.add(new QueuedFrame(destination, new PendingFrame(payload, System.nanoTime())));
+    }
+
+    private void dispatch() {
+        QueuedFrame queued;
+        while ((queued = ordered.poll()) != null) {
+            send(queued.destination, queued.frame);
+        }
+        for (String destination : pending.keySet()) {
+            PendingFrame frame = pending.remove(destination);
+            if (frame != null) {
+                send(destination, frame);
+            }
+        }
+    }
+
+    private void send(String destination, PendingFrame frame) {
+        Meters destinationMeters = metersFor(destination);
+        try {
+            messagingTemplate.convertAndSend(destination, frame.payload);
+            destinationMeters.latency.record(System.nanoTime() - frame.publishedAt, TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            destinationMeters.failed.increment();
+            log.warn("Failed to fan out update to {}", destination, e);
+        }
+    }
+
+    private Meters metersFor(String destination) {
+        return meters.computeIfAbsent(family(destination), family -> new Meters(
+                Timer.builder("tracking.fanout.latency")
+                        .description("Time from publish until the frame is handed to the broker")
+                        .tag("destination", family)
+                        .register(meterRegistry),
+                Counter.builder("tracking.fanout.conflated")
+                        .description("Frames replaced by a newer one before they were sent")
+                        .tag("destination", family)
+                        .register(meterRegistry),
+                Counter.builder("tracking.fanout.failed")
+                        .description("Frames the broker refused")
+                        .tag("destination", family)
+                        .register(meterRegistry)));
+    }
+
+    // "/topic/location/D1" -> "location"
+    private static String family(String destination) {
+        String[] parts = destination.split("/");
+        return parts.length > 2 ? parts[2] : destination;
+    }
+
+    @AllArgsConstructor
+    private static final class PendingFrame {
+        private final Object payload;
+        private final long publishedAt;
+    }
+
+    @AllArgsConstructor
+    private static final class QueuedFrame {
+        private final String destination;
+        private final PendingFrame frame;
+    }
+
+    @AllArgsConstructor
+    private static final class Meters {
+        private final Timer latency;
+        private final Counter conflated;
+        private final Counter failed;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.trackingservice.repository;
+
+import com.example.trackingservice.model.Location;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC writer for GPS fixes. Hibernate cannot batch inserts for IDENTITY ids,
+ * so the ingestion pipeline writes through here instead; with {@code reWriteBatchedInserts}
+ * enabled on the Postgres driver each batch becomes a multi-row INSERT. The generated ids
+ * come back with the batch and are set on the locations, so everything published after
+ * the insert carries them.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LocationBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO locations (driver_id, order_id, latitude, longitude, altitude, speed, heading, accuracy, timestamp, status, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<Location> locations) {
+        if (locations.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Location location = locations.get(i);
+                        if (location.getCreatedAt() == null) {
+                            location.setCreatedAt(now);
+                        }
+                        bind(ps, location);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return locations.size();
+                    }
+                }, keyHolder);
+
+        // One key row per inserted row, in batch order
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < keys.size() && i < locations.size(); i++) {
+            Object id = keys.get(i).get("id");
+            if (id instanceof Number number) {
+                locations.get(i).setId(number.longValue());
+            }
+        }
+    }
+
+    private void bind(PreparedStatement ps, Location location) throws SQLException {
+        ps.setString(1, location.getDriverId());
+        ps.setString(2, location.getOrderId());
+        ps.setDouble(3, location.getLatitude());
+        ps.setDouble(4, location.getLongitude());
+        ps.setObject(5, location.getAltitude(), Types.DOUBLE);
+        ps.setObject(6, location.getSpeed(), Types.DOUBLE);
+        ps.setObject(7, location.getHeading(), Types.DOUBLE);
+        ps.setObject(8, location.getAccuracy(), Types.DOUBLE);
+        ps.setTimestamp(9, Timestamp.valueOf(location.getTimestamp()));
+        ps.setString(10, location.getStatus() != null ? location.getStatus().name() : null);
+        ps.setTimestamp(11, Timestamp.valueOf(location.getCreatedAt()));
+    }
+}
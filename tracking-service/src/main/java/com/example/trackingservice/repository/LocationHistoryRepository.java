@@ -0,0 +1,129 @@
+package com.example.trackingservice.repository;
+
+import com.example.trackingservice.model.Location;
+import com.example.trackingservice.model.TrackingStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Maintenance statements for the {@code locations} table. They are written in plain
+ * Postgres SQL because neither JPQL nor derived queries can express window functions,
+ * lateral joins or bounded deletes.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LocationHistoryRepository {
+
+    // Keeps the latest fix per driver and minute, drops the rest
+    private static final String DOWNSAMPLE_SQL =
+            "DELETE FROM locations WHERE id IN ("
+                    + "SELECT id FROM ("
+                    + "SELECT id, row_number() OVER (PARTITION BY driver_id, date_trunc('minute', timestamp) ORDER BY timestamp DESC, id DESC) AS rn "
+                    + "FROM locations WHERE timestamp >= ? AND timestamp < ?"
+                    + ") ranked WHERE rn > 1)";
+
+    private static final String DELETE_EXPIRED_SQL =
+            "DELETE FROM locations WHERE id IN (SELECT id FROM locations WHERE timestamp < ? LIMIT ?)";
+
+    private static final String STREAM_COLUMNS =
+            "SELECT id, driver_id, order_id, latitude, longitude, altitude, speed, heading, accuracy, timestamp, status, created_at FROM locations ";
+
+    // One index probe per driver on (driver_id, timestamp, id), rather than sorting every
+    // fix of every driver as DISTINCT ON would
+    private static final String LATEST_PER_DRIVER_SQL =
+            "SELECT l.* FROM unnest(?::text[]) AS d(driver_id) CROSS JOIN LATERAL ("
+                    + "SELECT id, driver_id, order_id, latitude, longitude, altitude, speed, heading, accuracy, timestamp, status, created_at "
+                    + "FROM locations WHERE driver_id = d.driver_id ORDER BY timestamp DESC, id DESC LIMIT 1"
+                    + ") l";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${tracking.history.stream-fetch-size:1000}")
+    private int streamFetchSize;
+
+    /**
+     * Reduces fixes in {@code [from, to)} to one per driver per minute.
+     *
+     * @return number of rows removed
+     */
+    public int downsample(LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.update(DOWNSAMPLE_SQL, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * Deletes at most {@code limit} fixes older than {@code cutoff}, so one call never
+     * holds locks on an unbounded number of rows.
+     *
+     * @return number of rows removed
+     */
+    public int deleteOlderThan(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.update(DELETE_EXPIRED_SQL, Timestamp.valueOf(cutoff), limit);
+    }
+
+    /**
+     * Latest fix of each of {@code driverIds} in a single query. Drivers without any fix
+     * are left out.
+     */
+    public List<Location> findLatestByDriverIds(Collection<String> driverIds) {
+        if (driverIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(LATEST_PER_DRIVER_SQL);
+            ps.setArray(1, connection.createArrayOf("text", driverIds.toArray()));
+            return ps;
+        }, (rs, rowNum) -> mapRow(rs));
+    }
+
+    /**
+     * Hands every fix of a driver (or of an order, when {@code orderId} is set) in
+     * {@code [from, to)} to {@code consumer}, oldest first. Rows are read through a
+     * server-side cursor {@code streamFetchSize} at a time. The Postgres driver only
+     * uses a cursor inside a transaction, which is why this method is transactional.
+     */
+    @Transactional(readOnly = true)
+    public void streamHistory(String driverId, String orderId, LocalDateTime from, LocalDateTime to, Consumer<Location> consumer) {
+        String filter = orderId != null ? "WHERE order_id = ? " : "WHERE driver_id = ? ";
+        String sql = STREAM_COLUMNS + filter + "AND timestamp >= ? AND timestamp < ? ORDER BY timestamp, id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(streamFetchSize);
+            ps.setString(1, orderId != null ? orderId : driverId);
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(mapRow(rs)));
+    }
+
+    private static Location mapRow(ResultSet rs) throws SQLException {
+        String status = rs.getString("status");
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return Location.builder()
+                .id(rs.getLong("id"))
+                .driverId(rs.getString("driver_id"))
+                .orderId(rs.getString("order_id"))
+                .latitude(rs.getDouble("latitude"))
+                .longitude(rs.getDouble("longitude"))
+                .altitude(rs.getObject("altitude", Double.class))
+                .speed(rs.getObject("speed", Double.class))
+                .heading(rs.getObject("heading", Double.class))
+                .accuracy(rs.getObject("accuracy", Double.class))
+                .timestamp(rs.getTimestamp("timestamp").toLocalDateTime())
+                .status(status != null ? TrackingStatus.valueOf(status) : null)
+                .createdAt(createdAt != null ? createdAt.toLocalDateTime() : null)
+                .build();
+    }
+}
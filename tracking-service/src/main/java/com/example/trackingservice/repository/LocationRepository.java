@@ -1,6 +1,7 @@
 package com.example.trackingservice.repository;
 
 import com.example.trackingservice.model.Location;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,10 +14,6 @@ import java.util.Optional;
 @Repository
 public interface LocationRepository extends JpaRepository<Location, Long> {
     
-    List<Location> findByDriverIdOrderByTimestampDesc(String driverId);
-    
-    List<Location> findByOrderIdOrderByTimestampDesc(String orderId);
-    
     Optional<Location> findFirstByDriverIdOrderByTimestampDesc(String driverId);
     
     @Query("SELECT l FROM Location l WHERE l.driverId = :driverId AND l.timestamp >= :startTime ORDER BY l.timestamp DESC")
@@ -25,8 +22,20 @@ public interface LocationRepository extends JpaRepository<Location, Long> {
     @Query("SELECT l FROM Location l WHERE l.orderId = :orderId AND l.timestamp >= :startTime ORDER BY l.timestamp DESC")
     List<Location> findByOrderIdAndTimestampAfter(@Param("orderId") String orderId, @Param("startTime") LocalDateTime startTime);
     
-    @Query("SELECT DISTINCT l.driverId FROM Location l WHERE l.timestamp >= :startTime")
-    List<String> findActiveDrivers(@Param("startTime") LocalDateTime startTime);
+    // Keyset pages: rows strictly before (beforeTime, beforeId), newest first
+    @Query("SELECT l FROM Location l WHERE l.driverId = :driverId AND l.timestamp >= :from "
+            + "AND (l.timestamp < :beforeTime OR (l.timestamp = :beforeTime AND l.id < :beforeId)) "
+            + "ORDER BY l.timestamp DESC, l.id DESC")
+    List<Location> findDriverHistory(@Param("driverId") String driverId, @Param("from") LocalDateTime from,
+                                     @Param("beforeTime") LocalDateTime beforeTime, @Param("beforeId") Long beforeId,
+                                     Pageable pageable);
+    
+    @Query("SELECT l FROM Location l WHERE l.orderId = :orderId AND l.timestamp >= :from "
+            + "AND (l.timestamp < :beforeTime OR (l.timestamp = :beforeTime AND l.id < :beforeId)) "
+            + "ORDER BY l.timestamp DESC, l.id DESC")
+    List<Location> findOrderHistory(@Param("orderId") String orderId, @Param("from") LocalDateTime from,
+                                    @Param("beforeTime") LocalDateTime beforeTime, @Param("beforeId") Long beforeId,
+                                    Pageable pageable);
     
     void deleteByDriverId(String driverId);
     
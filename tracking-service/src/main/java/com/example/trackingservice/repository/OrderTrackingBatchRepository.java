@@ -0,0 +1,54 @@
+package com.example.trackingservice.repository;
+
+import com.example.trackingservice.ingest.OrderPositionBuffer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-targeted JDBC batch updates for {@code order_tracking}. Values computed in
+ * memory are written here without loading the entity, and without overwriting columns
+ * owned by other writers such as status.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderTrackingBatchRepository {
+
+    private static final String UPDATE_ETA_SQL =
+            "UPDATE order_tracking SET estimated_arrival = ? WHERE order_id = ?";
+
+    private static final String UPDATE_POSITION_SQL =
+            "UPDATE order_tracking SET current_latitude = ?, current_longitude = ?, updated_at = ? WHERE order_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void updateEstimatedArrivals(Map<String, LocalDateTime> arrivals) {
+        if (arrivals.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, LocalDateTime>> entries = new ArrayList<>(arrivals.entrySet());
+        jdbcTemplate.batchUpdate(UPDATE_ETA_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(entry.getValue()));
+            ps.setString(2, entry.getKey());
+        });
+    }
+
+    public void updatePositions(Map<String, OrderPositionBuffer.PendingPosition> positions) {
+        if (positions.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, OrderPositionBuffer.PendingPosition>> entries = new ArrayList<>(positions.entrySet());
+        jdbcTemplate.batchUpdate(UPDATE_POSITION_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setDouble(1, entry.getValue().getLatitude());
+            ps.setDouble(2, entry.getValue().getLongitude());
+            ps.setTimestamp(3, Timestamp.valueOf(entry.getValue().getUpdatedAt()));
+            ps.setString(4, entry.getKey());
+        });
+    }
+}
@@ -3,10 +3,14 @@ package com.example.trackingservice.repository;
 import com.example.trackingservice.model.DeliveryStatus;
 import com.example.trackingservice.model.OrderTracking;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,14 +25,44 @@ public interface OrderTrackingRepository extends JpaRepository<OrderTracking, Lo
     
     List<OrderTracking> findByStatus(DeliveryStatus status);
     
+    List<OrderTracking> findByStatusIn(Collection<DeliveryStatus> statuses);
+    
     List<OrderTracking> findByDriverIdAndStatus(String driverId, DeliveryStatus status);
     
+    List<OrderTracking> findByDriverIdInAndStatusIn(Collection<String> driverIds, Collection<DeliveryStatus> statuses);
+    
     @Query("SELECT ot FROM OrderTracking ot WHERE ot.driverId = :driverId AND ot.status IN :statuses")
     List<OrderTracking> findByDriverIdAndStatusIn(@Param("driverId") String driverId, @Param("statuses") List<DeliveryStatus> statuses);
     
     @Query("SELECT ot FROM OrderTracking ot WHERE ot.customerId = :customerId AND ot.status IN :statuses")
     List<OrderTracking> findByCustomerIdAndStatusIn(@Param("customerId") String customerId, @Param("statuses") List<DeliveryStatus> statuses);
     
+    /**
+     * Sets the status without touching the position and ETA columns, which are written
+     * behind by their own batches.
+     *
+     * @param actualArrival set when not {@code null}, otherwise left as it is
+     * @return number of rows updated, 0 for an unknown order
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderTracking ot SET ot.status = :status, ot.actualArrival = COALESCE(:actualArrival, ot.actualArrival), " +
+           "ot.updatedAt = :now WHERE ot.orderId = :orderId")
+    int updateStatus(@Param("orderId") String orderId, @Param("status") DeliveryStatus status,
+                     @Param("actualArrival") LocalDateTime actualArrival, @Param("now") LocalDateTime now);
+    
+    /**
+     * Compare-and-set variant of {@link #updateStatus} for automatic transitions.
+     *
+     * @return 1 if the order was still in {@code expected}, otherwise 0
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderTracking ot SET ot.status = :status, ot.updatedAt = :now " +
+           "WHERE ot.orderId = :orderId AND ot.status = :expected")
+    int updateStatusIf(@Param("orderId") String orderId, @Param("expected") DeliveryStatus expected,
+                       @Param("status") DeliveryStatus status, @Param("now") LocalDateTime now);
+    
     boolean existsByOrderId(String orderId);
     
     void deleteByOrderId(String orderId);
@@ -1,18 +1,26 @@
 package com.example.trackingservice.service;
 
+import com.example.trackingservice.dto.LocationBatchResult;
+import com.example.trackingservice.dto.LocationHistoryPage;
 import com.example.trackingservice.dto.LocationResponse;
+import com.example.trackingservice.dto.LocationTrackResponse;
 import com.example.trackingservice.dto.LocationUpdateRequest;
 import com.example.trackingservice.dto.OrderTrackingResponse;
 import com.example.trackingservice.model.DeliveryStatus;
 
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TrackingService {
     
     // Location tracking
     LocationResponse updateLocation(LocationUpdateRequest request);
+    LocationBatchResult ingestLocationBatch(byte[] payload);
     LocationResponse getCurrentLocation(String driverId);
-    List<LocationResponse> getLocationHistory(String driverId, String orderId);
+    LocationHistoryPage getLocationHistory(String driverId, String orderId, LocalDateTime from, LocalDateTime to, String cursor, Integer limit);
+    void streamLocationHistory(String driverId, String orderId, LocalDateTime from, LocalDateTime to, OutputStream out);
+    LocationTrackResponse getSimplifiedTrack(String driverId, String orderId, LocalDateTime from, LocalDateTime to, Double toleranceMeters);
     List<LocationResponse> getActiveDriverLocations();
     
     // Order tracking
@@ -1,31 +1,58 @@
 package com.example.trackingservice.service.impl;
 
+import com.example.trackingservice.cache.ActiveDriverRegistry;
+import com.example.trackingservice.cache.DriverLocationCache;
+import com.example.trackingservice.cache.OrderTrackingCache;
+import com.example.trackingservice.dto.LocationBatchResult;
+import com.example.trackingservice.dto.LocationHistoryPage;
 import com.example.trackingservice.dto.LocationResponse;
+import com.example.trackingservice.dto.LocationTrackResponse;
 import com.example.trackingservice.dto.LocationUpdateRequest;
 import com.example.trackingservice.dto.OrderTrackingResponse;
+import com.example.trackingservice.eta.EtaEngine;
+import com.example.trackingservice.geofence.GeofenceEngine;
+import com.example.trackingservice.geofence.GeofenceTransition;
+import com.example.trackingservice.history.HistoryCursor;
+import com.example.trackingservice.history.PolylineEncoder;
+import com.example.trackingservice.history.TrajectorySimplifier;
+import com.example.trackingservice.ingest.FixSequencer;
+import com.example.trackingservice.ingest.LocationBatchCodec;
+import com.example.trackingservice.ingest.LocationBatchPersistedEvent;
+import com.example.trackingservice.ingest.LocationIngestionPipeline;
+import com.example.trackingservice.ingest.OrderPositionBuffer;
+import com.example.trackingservice.listener.OrderStateListener;
 import com.example.trackingservice.model.DeliveryStatus;
 import com.example.trackingservice.model.Location;
 import com.example.trackingservice.model.OrderTracking;
 import com.example.trackingservice.model.TrackingStatus;
+import com.example.trackingservice.realtime.FanoutMode;
+import com.example.trackingservice.realtime.LiveUpdateFanout;
+import com.example.trackingservice.repository.LocationHistoryRepository;
 import com.example.trackingservice.repository.LocationRepository;
 import com.example.trackingservice.repository.OrderTrackingRepository;
 import com.example.trackingservice.service.TrackingService;
+import com.example.trackingservice.simulation.LocationSimulationEngine;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -33,10 +60,21 @@ import java.util.concurrent.TimeUnit;
 public class TrackingServiceImpl implements TrackingService {
     
     private final LocationRepository locationRepository;
+    private final LocationHistoryRepository locationHistoryRepository;
     private final OrderTrackingRepository orderTrackingRepository;
-    private final RedisTemplate<String, String> redisTemplate;
+    private final DriverLocationCache driverLocationCache;
+    private final ActiveDriverRegistry activeDriverRegistry;
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final ObjectMapper objectMapper;
+    private final LocationIngestionPipeline ingestionPipeline;
+    private final FixSequencer fixSequencer;
+    private final LocationSimulationEngine simulationEngine;
+    private final LiveUpdateFanout liveUpdateFanout;
+    private final EtaEngine etaEngine;
+    private final GeofenceEngine geofenceEngine;
+    private final OrderPositionBuffer orderPositionBuffer;
+    private final OrderTrackingCache orderTrackingCache;
+    private final OrderStateListener orderStateListener;
     
     @Value("${tracking.kafka.topics.location-updates}")
     private String locationUpdatesTopic;
@@ -44,8 +82,11 @@ public class TrackingServiceImpl implements TrackingService {
     @Value("${tracking.kafka.topics.delivery-status}")
     private String deliveryStatusTopic;
     
-    @Value("${tracking.redis.keys.driver-locations}")
-    private String driverLocationsKey;
+    @Value("${tracking.kafka.topics.order-locations}")
+    private String orderLocationsTopic;
+    
+    @Value("${tracking.fanout.mode:local}")
+    private FanoutMode fanoutMode;
     
     @Value("${tracking.redis.keys.order-tracking}")
     private String orderTrackingKey;
@@ -53,38 +94,105 @@ public class TrackingServiceImpl implements TrackingService {
     @Value("${tracking.gps.simulation-enabled:true}")
     private boolean simulationEnabled;
     
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(10);
-    private final Map<String, ScheduledExecutorService> driverSimulations = new ConcurrentHashMap<>();
+    @Value("${tracking.active-drivers.offline-after-minutes:30}")
+    private long offlineAfterMinutes;
+    
+    @Value("${tracking.ingest.max-batch-fixes:1000}")
+    private int maxBatchFixes;
+    
+    @Value("${tracking.history.default-range-hours:24}")
+    private long defaultHistoryRangeHours;
+    
+    @Value("${tracking.history.default-limit:500}")
+    private int defaultHistoryLimit;
+    
+    @Value("${tracking.history.max-limit:5000}")
+    private int maxHistoryLimit;
+    
+    @Value("${tracking.history.track-tolerance-meters:10}")
+    private double defaultTrackToleranceMeters;
     
     @Override
     public LocationResponse updateLocation(LocationUpdateRequest request) {
-        try {
-            Location location = Location.builder()
-                    .driverId(request.getDriverId())
-                    .orderId(request.getOrderId())
-                    .latitude(request.getLatitude())
-                    .longitude(request.getLongitude())
-                    .altitude(request.getAltitude())
-                    .speed(request.getSpeed())
-                    .heading(request.getHeading())
-                    .accuracy(request.getAccuracy())
-                    .timestamp(LocalDateTime.now())
-                    .status(TrackingStatus.ACTIVE)
-                    .build();
-            
-            Location savedLocation = locationRepository.save(location);
-            LocationResponse response = mapToLocationResponse(savedLocation);
-            
-            // Cache the location
-            cacheDriverLocation(request.getDriverId(), response);
-            
-            // Publish to Kafka
+        Location location = Location.builder()
+                .driverId(request.getDriverId())
+                .orderId(request.getOrderId())
+                .latitude(request.getLatitude())
+                .longitude(request.getLongitude())
+                .altitude(request.getAltitude())
+                .speed(request.getSpeed())
+                .heading(request.getHeading())
+                .accuracy(request.getAccuracy())
+                .timestamp(request.getTimestamp() != null ? request.getTimestamp() : LocalDateTime.now())
+                .status(TrackingStatus.ACTIVE)
+                .sequence(request.getSequence())
+                .build();
+        
+        // Persisting, caching and publishing happen on the ingestion flusher thread;
+        // retries and stationary repeats are acknowledged without being stored again
+        FixSequencer.Admission admission = fixSequencer.submit(request.getDriverId(), List.of(location), ingestionPipeline::submitAll);
+        if (admission.getRejected() > 0) {
+            log.warn("Location ingestion queue full, rejecting fix for driver: {}", request.getDriverId());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Location ingestion queue is full");
+        }
+        
+        return mapToLocationResponse(location);
+    }
+    
+    @Override
+    public LocationBatchResult ingestLocationBatch(byte[] payload) {
+        LocationBatchCodec.DecodedBatch batch = LocationBatchCodec.decode(payload, maxBatchFixes);
+        
+        // Same path as updateLocation, one enqueue per fix and no per-fix request overhead
+        FixSequencer.Admission admission = fixSequencer.submit(batch.getDriverId(), batch.getFixes(), ingestionPipeline::submitAll);
+        if (admission.getAccepted() == 0 && admission.getRejected() > 0) {
+            log.warn("Location ingestion queue full, rejecting batch for driver: {}", batch.getDriverId());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Location ingestion queue is full");
+        }
+        
+        return LocationBatchResult.builder()
+                .driverId(batch.getDriverId())
+                .received(batch.getFixes().size())
+                .dropped(admission.getDropped())
+                .accepted(admission.getAccepted())
+                .rejected(admission.getRejected())
+                .build();
+    }
+    
+    @EventListener
+    public void onLocationsPersisted(LocationBatchPersistedEvent event) {
+        // Late fixes are history only; everything below is about the current position
+        List<Location> current = event.getLocations().stream()
+                .filter(location -> !location.isOutOfOrder())
+                .toList();
+        List<LocationResponse> responses = current.stream()
+                .map(this::mapToLocationResponse)
+                .toList();
+        
+        // Cache the whole batch and mark the drivers as seen, one Redis round-trip each
+        driverLocationCache.putAll(responses);
+        Map<String, Long> lastSeen = new HashMap<>();
+        for (Location location : current) {
+            long millis = location.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            lastSeen.merge(location.getDriverId(), millis, Math::max);
+        }
+        activeDriverRegistry.touchAll(lastSeen);
+        
+        // Orders created on other nodes are only known here once loaded
+        orderStateListener.loadOrdersOf(current);
+        
+        // Refresh ETAs of the drivers' in-flight orders
+        etaEngine.onFixes(current);
+        
+        // Automatic status changes when drivers cross pickup/delivery geofences
+        for (GeofenceTransition transition : geofenceEngine.onFixes(current)) {
+            applyGeofenceTransition(transition);
+        }
+        
+        // Publish to Kafka and to WebSocket subscribers
+        for (LocationResponse response : responses) {
             publishLocationUpdate(response);
-            
-            return response;
-        } catch (Exception e) {
-            log.error("Error updating location for driver: {}", request.getDriverId(), e);
-            throw new RuntimeException("Failed to update location", e);
+            liveUpdateFanout.publishLocation(response);
         }
     }
     
@@ -108,28 +216,140 @@ public class TrackingServiceImpl implements TrackingService {
     }
     
     @Override
-    public List<LocationResponse> getLocationHistory(String driverId, String orderId) {
+    public LocationHistoryPage getLocationHistory(String driverId, String orderId, LocalDateTime from, LocalDateTime to,
+                                                  String cursor, Integer limit) {
+        // Always bounded: a missing range means the last default-range-hours, newest first
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(defaultHistoryRangeHours);
+        int size = Math.min(limit != null && limit > 0 ? limit : defaultHistoryLimit, maxHistoryLimit);
+        
+        // The first page starts just before `end`, later pages just after the last row returned
+        HistoryCursor position = cursor != null ? HistoryCursor.decode(cursor) : new HistoryCursor(end, Long.MIN_VALUE);
+        // One extra row tells whether another page exists
+        PageRequest page = PageRequest.of(0, size + 1);
+        
         List<Location> locations;
         if (orderId != null) {
-            locations = locationRepository.findByOrderIdOrderByTimestampDesc(orderId);
+            locations = locationRepository.findOrderHistory(orderId, start, position.getTimestamp(), position.getId(), page);
         } else {
-            locations = locationRepository.findByDriverIdOrderByTimestampDesc(driverId);
+            locations = locationRepository.findDriverHistory(driverId, start, position.getTimestamp(), position.getId(), page);
         }
         
-        return locations.stream()
-                .map(this::mapToLocationResponse)
-                .toList();
+        String nextCursor = null;
+        if (locations.size() > size) {
+            locations = locations.subList(0, size);
+            Location last = locations.get(size - 1);
+            nextCursor = new HistoryCursor(last.getTimestamp(), last.getId()).encode();
+        }
+        
+        return LocationHistoryPage.builder()
+                .items(locations.stream()
+                        .map(this::mapToLocationResponse)
+                        .toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
+    
+    @Override
+    public void streamLocationHistory(String driverId, String orderId, LocalDateTime from, LocalDateTime to, OutputStream out) {
+        // Unlike paging, a missing lower bound means everything still retained
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : LocalDateTime.of(1970, 1, 1, 0, 0);
+        
+        locationHistoryRepository.streamHistory(driverId, orderId, start, end, location -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(mapToLocationResponse(location)));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    @Override
+    public LocationTrackResponse getSimplifiedTrack(String driverId, String orderId, LocalDateTime from, LocalDateTime to,
+                                                    Double toleranceMeters) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(defaultHistoryRangeHours);
+        double tolerance = toleranceMeters != null && toleranceMeters >= 0 ? toleranceMeters : defaultTrackToleranceMeters;
+        
+        // Only coordinates are kept, in primitive arrays, while the rows stream in oldest first
+        TrackBuffer track = new TrackBuffer();
+        locationHistoryRepository.streamHistory(driverId, orderId, start, end, track::add);
+        
+        boolean[] keep = TrajectorySimplifier.simplify(track.latitudes, track.longitudes, track.size, tolerance);
+        int kept = 0;
+        for (boolean k : keep) {
+            if (k) {
+                kept++;
+            }
+        }
+        
+        return LocationTrackResponse.builder()
+                .driverId(driverId)
+                .orderId(orderId)
+                .startTime(track.first)
+                .endTime(track.last)
+                .toleranceMeters(tolerance)
+                .originalPoints(track.size)
+                .simplifiedPoints(kept)
+                .polyline(PolylineEncoder.encode(track.latitudes, track.longitudes, keep))
+                .build();
     }
     
     @Override
     public List<LocationResponse> getActiveDriverLocations() {
-        LocalDateTime startTime = LocalDateTime.now().minusMinutes(30);
-        List<String> activeDriverIds = locationRepository.findActiveDrivers(startTime);
+        List<String> activeDriverIds = activeDriverRegistry.activeSince(Duration.ofMinutes(offlineAfterMinutes));
         
-        return activeDriverIds.stream()
-                .map(this::getCurrentLocation)
-                .filter(Objects::nonNull)
+        // One HMGET for the whole fleet; misses are read in one query and backfilled in one
+        // script call, which leaves any newer fix cached meanwhile in place
+        Map<String, LocationResponse> cached = driverLocationCache.getAll(activeDriverIds);
+        List<String> missing = activeDriverIds.stream()
+                .filter(driverId -> !cached.containsKey(driverId))
+                .toList();
+        List<LocationResponse> backfill = locationHistoryRepository.findLatestByDriverIds(missing).stream()
+                .map(this::mapToLocationResponse)
                 .toList();
+        Map<String, LocationResponse> loaded = new HashMap<>();
+        backfill.forEach(location -> loaded.put(location.getDriverId(), location));
+        
+        List<LocationResponse> result = new ArrayList<>(activeDriverIds.size());
+        for (String driverId : activeDriverIds) {
+            LocationResponse location = cached.getOrDefault(driverId, loaded.get(driverId));
+            if (location != null) {
+                result.add(location);
+            }
+        }
+        driverLocationCache.putAll(backfill);
+        
+        return result;
+    }
+    
+    /**
+     * Takes drivers that have not reported for offline-after-minutes out of the registry and
+     * announces them as OFFLINE. With several nodes each driver is announced by one of them.
+     */
+    @Scheduled(fixedDelayString = "${tracking.active-drivers.sweep-interval-ms:30000}")
+    public void expireInactiveDrivers() {
+        try {
+            List<String> expired = activeDriverRegistry.expire(Duration.ofMinutes(offlineAfterMinutes));
+            for (String driverId : expired) {
+                driverLocationCache.remove(driverId);
+                fixSequencer.forget(driverId);
+                orderStateListener.forgetDriver(driverId);
+                locationRepository.findFirstByDriverIdOrderByTimestampDesc(driverId).ifPresent(last -> {
+                    LocationResponse offline = mapToLocationResponse(last);
+                    offline.setStatus(TrackingStatus.OFFLINE);
+                    publishLocationUpdate(offline);
+                    liveUpdateFanout.publishLocation(offline);
+                });
+            }
+            if (!expired.isEmpty()) {
+                log.info("Marked {} drivers offline", expired.size());
+            }
+        } catch (Exception e) {
+            log.error("Error expiring inactive drivers", e);
+        }
     }
     
     @Override
@@ -148,41 +368,63 @@ public class TrackingServiceImpl implements TrackingService {
                 .build();
         
         OrderTracking savedTracking = orderTrackingRepository.save(orderTracking);
-        return mapToOrderTrackingResponse(savedTracking);
+        etaEngine.track(savedTracking);
+        geofenceEngine.track(savedTracking);
+        OrderTrackingResponse response = mapToOrderTrackingResponse(savedTracking);
+        orderTrackingCache.put(response);
+        return response;
     }
     
     @Override
     public OrderTrackingResponse updateOrderStatus(String orderId, DeliveryStatus status) {
-        Optional<OrderTracking> optional = orderTrackingRepository.findByOrderId(orderId);
-        if (optional.isPresent()) {
-            OrderTracking tracking = optional.get();
-            tracking.setStatus(status);
-            tracking.setUpdatedAt(LocalDateTime.now());
-            
-            if (status == DeliveryStatus.DELIVERED) {
-                tracking.setActualArrival(LocalDateTime.now());
-            }
-            
-            OrderTracking saved = orderTrackingRepository.save(tracking);
-            publishDeliveryStatusUpdate(mapToOrderTrackingResponse(saved));
-            return mapToOrderTrackingResponse(saved);
+        // Status columns only: position and ETA have their own write-behind writers, and a
+        // full save would put back whatever this read saw
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime actualArrival = status == DeliveryStatus.DELIVERED ? now : null;
+        if (orderTrackingRepository.updateStatus(orderId, status, actualArrival, now) == 0) {
+            throw new RuntimeException("Order tracking not found: " + orderId);
         }
-        throw new RuntimeException("Order tracking not found: " + orderId);
+        return statusChanged(orderId);
+    }
+    
+    /**
+     * Reads back an order after its status was updated, refreshes the engines and the
+     * snapshot from it, and publishes the change.
+     */
+    private OrderTrackingResponse statusChanged(String orderId) {
+        OrderTracking saved = orderTrackingRepository.findByOrderId(orderId)
+                .orElseThrow(() -> new RuntimeException("Order tracking not found: " + orderId));
+        etaEngine.track(saved);
+        geofenceEngine.track(saved);
+        OrderTrackingResponse response = mapToOrderTrackingResponse(saved);
+        orderTrackingCache.put(response);
+        publishDeliveryStatusUpdate(response);
+        return response;
     }
     
     @Override
     public OrderTrackingResponse updateOrderLocation(String orderId, Double latitude, Double longitude) {
-        Optional<OrderTracking> optional = orderTrackingRepository.findByOrderId(orderId);
-        if (optional.isPresent()) {
-            OrderTracking tracking = optional.get();
-            tracking.setCurrentLatitude(latitude);
-            tracking.setCurrentLongitude(longitude);
-            tracking.setUpdatedAt(LocalDateTime.now());
-            
-            OrderTracking saved = orderTrackingRepository.save(tracking);
-            return mapToOrderTrackingResponse(saved);
+        // The snapshot comes from Redis; order_tracking is only read on a miss, which is
+        // also where an unknown orderId is turned away
+        OrderTrackingResponse snapshot = orderTrackingCache.get(orderId);
+        if (snapshot == null) {
+            snapshot = orderTrackingRepository.findByOrderId(orderId)
+                    .map(this::mapToOrderTrackingResponse)
+                    .orElseThrow(() -> new RuntimeException("Order tracking not found: " + orderId));
+            orderTrackingCache.put(snapshot);
+        }
+        
+        // Written behind by OrderPositionBuffer; only the latest position per flush reaches the DB
+        OrderPositionBuffer.PendingPosition position = orderPositionBuffer.update(orderId, latitude, longitude);
+        snapshot.setCurrentLatitude(position.getLatitude());
+        snapshot.setCurrentLongitude(position.getLongitude());
+        snapshot.setUpdatedAt(position.getUpdatedAt());
+        LocalDateTime estimatedArrival = etaEngine.getEstimatedArrival(orderId);
+        if (estimatedArrival != null) {
+            snapshot.setEstimatedArrival(estimatedArrival);
         }
-        throw new RuntimeException("Order tracking not found: " + orderId);
+        publishOrderLocationUpdate(snapshot);
+        return snapshot;
     }
     
     @Override
@@ -212,62 +454,31 @@ public class TrackingServiceImpl implements TrackingService {
             return;
         }
         
-        stopLocationSimulation(driverId);
-        
-        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
-        driverSimulations.put(driverId, executor);
-        
-        executor.scheduleAtFixedRate(() -> {
-            try {
-                // Generate random location near the delivery point
-                LocationUpdateRequest request = generateSimulatedLocation(driverId, orderId);
-                updateLocation(request);
-            } catch (Exception e) {
-                log.error("Error in location simulation for driver: {}", driverId, e);
-            }
-        }, 0, 5, TimeUnit.SECONDS);
-        
+        simulationEngine.startDriver(driverId, orderId);
         log.info("Started location simulation for driver: {}", driverId);
     }
     
     @Override
     public void stopLocationSimulation(String driverId) {
-        ScheduledExecutorService executor = driverSimulations.remove(driverId);
-        if (executor != null) {
-            executor.shutdown();
+        if (simulationEngine.stopDriver(driverId)) {
             log.info("Stopped location simulation for driver: {}", driverId);
         }
     }
     
     @Override
     public void cacheDriverLocation(String driverId, LocationResponse location) {
-        try {
-            String key = driverLocationsKey + ":" + driverId;
-            String value = objectMapper.writeValueAsString(location);
-            redisTemplate.opsForValue().set(key, value, 30, TimeUnit.MINUTES);
-        } catch (JsonProcessingException e) {
-            log.error("Error caching driver location", e);
-        }
+        location.setDriverId(driverId);
+        driverLocationCache.put(location);
     }
     
     @Override
     public LocationResponse getCachedDriverLocation(String driverId) {
-        try {
-            String key = driverLocationsKey + ":" + driverId;
-            String value = redisTemplate.opsForValue().get(key);
-            if (value != null) {
-                return objectMapper.readValue(value, LocationResponse.class);
-            }
-        } catch (Exception e) {
-            log.error("Error getting cached driver location", e);
-        }
-        return null;
+        return driverLocationCache.get(driverId);
     }
     
     @Override
     public void clearDriverLocationCache(String driverId) {
-        String key = driverLocationsKey + ":" + driverId;
-        redisTemplate.delete(key);
+        driverLocationCache.remove(driverId);
     }
     
     private LocationResponse mapToLocationResponse(Location location) {
@@ -287,7 +498,41 @@ public class TrackingServiceImpl implements TrackingService {
                 .build();
     }
     
+    private void applyGeofenceTransition(GeofenceTransition transition) {
+        try {
+            // Only from the status the engine saw, so a change made elsewhere is never undone
+            if (orderTrackingRepository.updateStatusIf(transition.getOrderId(), transition.getFrom(),
+                    transition.getStatus(), LocalDateTime.now()) == 0) {
+                orderTrackingRepository.findByOrderId(transition.getOrderId()).ifPresent(tracking -> {
+                    etaEngine.track(tracking);
+                    geofenceEngine.track(tracking);
+                });
+                log.info("Geofence transition {} skipped, order {} is no longer {}",
+                        transition.getStatus(), transition.getOrderId(), transition.getFrom());
+                return;
+            }
+            // Goes to the delivery-status topic like any other status change
+            OrderTrackingResponse response = statusChanged(transition.getOrderId());
+            liveUpdateFanout.publishOrderStatus(response);
+            log.info("Geofence moved order {} to {}", transition.getOrderId(), transition.getStatus());
+        } catch (Exception e) {
+            log.error("Error applying geofence transition {}", transition, e);
+        }
+    }
+    
+    private void applyPendingPosition(OrderTracking tracking) {
+        OrderPositionBuffer.PendingPosition position = orderPositionBuffer.get(tracking.getOrderId());
+        if (position != null) {
+            tracking.setCurrentLatitude(position.getLatitude());
+            tracking.setCurrentLongitude(position.getLongitude());
+            if (tracking.getUpdatedAt() == null || position.getUpdatedAt().isAfter(tracking.getUpdatedAt())) {
+                tracking.setUpdatedAt(position.getUpdatedAt());
+            }
+        }
+    }
+    
     private OrderTrackingResponse mapToOrderTrackingResponse(OrderTracking tracking) {
+        applyPendingPosition(tracking);
         return OrderTrackingResponse.builder()
                 .id(tracking.getId())
                 .orderId(tracking.getOrderId())
@@ -299,7 +544,8 @@ public class TrackingServiceImpl implements TrackingService {
                 .deliveryLongitude(tracking.getDeliveryLongitude())
                 .currentLatitude(tracking.getCurrentLatitude())
                 .currentLongitude(tracking.getCurrentLongitude())
-                .estimatedArrival(tracking.getEstimatedArrival())
+                .estimatedArrival(Optional.ofNullable(etaEngine.getEstimatedArrival(tracking.getOrderId()))
+                        .orElse(tracking.getEstimatedArrival()))
                 .actualArrival(tracking.getActualArrival())
                 .status(tracking.getStatus())
                 .createdAt(tracking.getCreatedAt())
@@ -307,50 +553,6 @@ public class TrackingServiceImpl implements TrackingService {
                 .build();
     }
     
-    private LocationUpdateRequest generateSimulatedLocation(String driverId, String orderId) {
-        // Get order tracking to simulate movement towards delivery point
-        Optional<OrderTracking> optional = orderTrackingRepository.findByOrderId(orderId);
-        if (optional.isPresent()) {
-            OrderTracking tracking = optional.get();
-            
-            // Simulate movement from current position towards delivery point
-            double currentLat = tracking.getCurrentLatitude() != null ? tracking.getCurrentLatitude() : tracking.getPickupLatitude();
-            double currentLng = tracking.getCurrentLongitude() != null ? tracking.getCurrentLongitude() : tracking.getPickupLongitude();
-            
-            double deliveryLat = tracking.getDeliveryLatitude();
-            double deliveryLng = tracking.getDeliveryLongitude();
-            
-            double latDiff = deliveryLat - currentLat;
-            double lngDiff = deliveryLng - currentLng;
-            
-            double stepSize = 0.0001;
-            double randomFactor = 0.5 + Math.random() * 0.5;
-            
-            double newLat = currentLat + (latDiff * stepSize * randomFactor);
-            double newLng = currentLng + (lngDiff * stepSize * randomFactor);
-            
-            return LocationUpdateRequest.builder()
-                    .driverId(driverId)
-                    .orderId(orderId)
-                    .latitude(newLat)
-                    .longitude(newLng)
-                    .speed(30.0 + Math.random() * 20.0) // 30-50 km/h
-                    .heading(Math.random() * 360.0)
-                    .accuracy(5.0 + Math.random() * 10.0) // 5-15 meters
-                    .build();
-        }
-        
-        return LocationUpdateRequest.builder()
-                .driverId(driverId)
-                .orderId(orderId)
-                .latitude(10.762622 + (Math.random() - 0.5) * 0.01)
-                .longitude(106.660172 + (Math.random() - 0.5) * 0.01)
-                .speed(30.0 + Math.random() * 20.0)
-                .heading(Math.random() * 360.0)
-                .accuracy(5.0 + Math.random() * 10.0)
-                .build();
-    }
-    
     private void publishLocationUpdate(LocationResponse location) {
         try {
             String message = objectMapper.writeValueAsString(location);
@@ -360,6 +562,19 @@ public class TrackingServiceImpl implements TrackingService {
         }
     }
     
+    private void publishOrderLocationUpdate(OrderTrackingResponse tracking) {
+        // Nothing but the kafka fan-out reads this topic
+        if (fanoutMode != FanoutMode.KAFKA) {
+            return;
+        }
+        try {
+            String message = objectMapper.writeValueAsString(tracking);
+            kafkaTemplate.send(orderLocationsTopic, tracking.getOrderId(), message);
+        } catch (JsonProcessingException e) {
+            log.error("Error publishing order location update", e);
+        }
+    }
+    
     private void publishDeliveryStatusUpdate(OrderTrackingResponse tracking) {
         try {
             String message = objectMapper.writeValueAsString(tracking);
@@ -368,4 +583,26 @@ public class TrackingServiceImpl implements TrackingService {
             log.error("Error publishing delivery status update", e);
         }
     }
+    
+    private static final class TrackBuffer {
+        private double[] latitudes = new double[1024];
+        private double[] longitudes = new double[1024];
+        private int size;
+        private LocalDateTime first;
+        private LocalDateTime last;
+        
+        private void add(Location location) {
+            if (size == latitudes.length) {
+                latitudes = Arrays.copyOf(latitudes, size * 2);
+                longitudes = Arrays.copyOf(longitudes, size * 2);
+            }
+            latitudes[size] = location.getLatitude();
+            longitudes[size] = location.getLongitude();
+            size++;
+            if (first == null) {
+                first = location.getTimestamp();
+            }
+            last = location.getTimestamp();
+        }
+    }
 }
\ No newline at end of file
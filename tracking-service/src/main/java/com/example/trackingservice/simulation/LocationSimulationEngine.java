@@ -0,0 +1,201 @@
+package com.example.trackingservice.simulation;
+
+import com.example.trackingservice.ingest.LocationIngestionPipeline;
+import com.example.trackingservice.model.Location;
+import com.example.trackingservice.model.OrderTracking;
+import com.example.trackingservice.model.TrackingStatus;
+import com.example.trackingservice.repository.OrderTrackingRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives every simulated driver from one thread using a timer wheel. The update interval
+ * is cut into {@code interval / tick} slots and each driver is hashed into one of them,
+ * so each tick only moves the drivers of its own slot and the load stays flat however
+ * many drivers are running. Positions are kept in memory. The fixes from one tick go to
+ * the ingestion pipeline together and are persisted in its JDBC batches, so a running
+ * simulation never touches the database directly.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LocationSimulationEngine {
+
+    private static final double DEFAULT_LATITUDE = 10.762622;
+    private static final double DEFAULT_LONGITUDE = 106.660172;
+    private static final double STEP_SIZE = 0.0001;
+
+    private final OrderTrackingRepository orderTrackingRepository;
+    private final LocationIngestionPipeline ingestionPipeline;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${tracking.gps.update-interval:5000}")
+    private long updateIntervalMs;
+
+    @Value("${tracking.gps.simulation-tick-ms:100}")
+    private long tickMs;
+
+    private final Map<String, SimulatedDriver> drivers = new ConcurrentHashMap<>();
+    private Set<String>[] wheel;
+    private int cursor;
+    private ScheduledExecutorService ticker;
+    private Timer tickLatency;
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void start() {
+        int slots = (int) Math.max(1, updateIntervalMs / tickMs);
+        wheel = new Set[slots];
+        for (int i = 0; i < slots; i++) {
+            wheel[i] = ConcurrentHashMap.newKeySet();
+        }
+
+        Gauge.builder("tracking.simulation.drivers", drivers, Map::size)
+                .description("Drivers currently being simulated")
+                .register(meterRegistry);
+        tickLatency = Timer.builder("tracking.simulation.tick.latency")
+                .description("Time spent advancing one slot of simulated drivers")
+                .register(meterRegistry);
+
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "location-simulation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Starts (or restarts) simulating a driver. The order is looked up once here to get
+     * the start and destination; nothing is read again while the driver is moving.
+     */
+    public void startDriver(String driverId, String orderId) {
+        stopDriver(driverId);
+
+        SimulatedDriver driver = orderTrackingRepository.findByOrderId(orderId)
+                .map(tracking -> fromTracking(driverId, orderId, tracking))
+                .orElseGet(() -> new SimulatedDriver(driverId, orderId, DEFAULT_LATITUDE, DEFAULT_LONGITUDE, null, null));
+
+        drivers.put(driverId, driver);
+        wheel[slotOf(driverId)].add(driverId);
+    }
+
+    public boolean stopDriver(String driverId) {
+        wheel[slotOf(driverId)].remove(driverId);
+        return drivers.remove(driverId) != null;
+    }
+
+    public int size() {
+        return drivers.size();
+    }
+
+    private void tick() {
+        try {
+            Set<String> slot = wheel[cursor];
+            cursor = (cursor + 1) % wheel.length;
+            if (slot.isEmpty()) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            LocalDateTime now = LocalDateTime.now();
+            List<Location> fixes = new ArrayList<>(slot.size());
+            for (String driverId : slot) {
+                SimulatedDriver driver = drivers.get(driverId);
+                if (driver != null) {
+                    fixes.add(driver.advance(now));
+                }
+            }
+
+            int accepted = ingestionPipeline.submitAll(fixes);
+            if (accepted < fixes.size()) {
+                log.warn("Ingestion queue full, dropped {} simulated fixes", fixes.size() - accepted);
+            }
+            tickLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            log.error("Error in location simulation tick", e);
+        }
+    }
+
+    private int slotOf(String driverId) {
+        return Math.floorMod(driverId.hashCode(), wheel.length);
+    }
+
+    private static SimulatedDriver fromTracking(String driverId, String orderId, OrderTracking tracking) {
+        double latitude = tracking.getCurrentLatitude() != null ? tracking.getCurrentLatitude() : tracking.getPickupLatitude();
+        double longitude = tracking.getCurrentLongitude() != null ? tracking.getCurrentLongitude() : tracking.getPickupLongitude();
+        return new SimulatedDriver(driverId, orderId, latitude, longitude,
+                tracking.getDeliveryLatitude(), tracking.getDeliveryLongitude());
+    }
+
+    /**
+     * Movement state of one driver. Only the simulation thread calls {@link #advance}.
+     */
+    private static final class SimulatedDriver {
+        private final String driverId;
+        private final String orderId;
+        private final Double targetLatitude;
+        private final Double targetLongitude;
+        private double latitude;
+        private double longitude;
+
+        private SimulatedDriver(String driverId, String orderId, double latitude, double longitude,
+                                Double targetLatitude, Double targetLongitude) {
+            this.driverId = driverId;
+            this.orderId = orderId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.targetLatitude = targetLatitude;
+            this.targetLongitude = targetLongitude;
+        }
+
+        private Location advance(LocalDateTime now) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (targetLatitude != null && targetLongitude != null) {
+                // Move towards the delivery point
+                double randomFactor = 0.5 + random.nextDouble() * 0.5;
+                latitude += (targetLatitude - latitude) * STEP_SIZE * randomFactor;
+                longitude += (targetLongitude - longitude) * STEP_SIZE * randomFactor;
+            } else {
+                // No order to follow, wander around the default point
+                latitude = DEFAULT_LATITUDE + (random.nextDouble() - 0.5) * 0.01;
+                longitude = DEFAULT_LONGITUDE + (random.nextDouble() - 0.5) * 0.01;
+            }
+
+            return Location.builder()
+                    .driverId(driverId)
+                    .orderId(orderId)
+                    .latitude(latitude)
+                    .longitude(longitude)
+                    .speed(30.0 + random.nextDouble() * 20.0) // 30-50 km/h
+                    .heading(random.nextDouble() * 360.0)
+                    .accuracy(5.0 + random.nextDouble() * 10.0) // 5-15 meters
+                    .timestamp(now)
+                    .status(TrackingStatus.ACTIVE)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.trackingservice.ingest;
+
+import com.example.trackingservice.model.Location;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FixSequencerTest {
+
+    private static final String DRIVER = "D1";
+
+    private FixSequencer sequencer;
+    private final List<Location> queued = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        sequencer = new FixSequencer(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(sequencer, "minMovementMeters", 5.0);
+        ReflectionTestUtils.setField(sequencer, "stationaryIntervalMs", 30_000L);
+        ReflectionTestUtils.setField(sequencer, "maxFutureSkewMs", 60_000L);
+        sequencer.init();
+    }
+
+    @Test
+    void futureFixIsClampedAndDoesNotHoldBackLaterFixes() {
+        LocalDateTime now = LocalDateTime.now();
+        Location future = fix(now.plusHours(6), 52.5200, 13.4050, null);
+
+        assertEquals(1, submit(future).getAccepted());
+        assertFalse(future.getTimestamp().isAfter(LocalDateTime.now()), "future time should be clamped");
+
+        Location next = fix(LocalDateTime.now().plusSeconds(10), 52.5300, 13.4150, null);
+        assertEquals(1, submit(next).getAccepted());
+        assertFalse(next.isOutOfOrder(), "a genuine fix after a clamped one must stay current");
+    }
+
+    @Test
+    void fixWithinTheSkewKeepsItsTime() {
+        LocalDateTime slightlyAhead = LocalDateTime.now().plusSeconds(20).withNano(0);
+        Location fix = fix(slightlyAhead, 52.52, 13.405, null);
+
+        submit(fix);
+
+        assertEquals(slightlyAhead, fix.getTimestamp());
+    }
+
+    @Test
+    void retryOfAClampedFixIsStillADuplicate() {
+        LocalDateTime future = LocalDateTime.now().plusHours(6).withNano(0);
+
+        assertEquals(1, submit(fix(future, 52.52, 13.405, null)).getAccepted());
+        FixSequencer.Admission retry = submit(fix(future, 52.52, 13.405, null));
+
+        assertEquals(1, retry.getDropped());
+        assertEquals(0, retry.getAccepted());
+    }
+
+    @Test
+    void rejectedFixIsAcceptedWhenResent() {
+        Location fix = fix(LocalDateTime.now(), 52.52, 13.405, 7L);
+
+        FixSequencer.Admission rejected = sequencer.submit(DRIVER, List.of(fix), fixes -> 0);
+        assertEquals(1, rejected.getRejected());
+
+        assertEquals(1, submit(fix(fix.getTimestamp(), 52.52, 13.405, 7L)).getAccepted());
+    }
+
+    @Test
+    void olderFixIsKeptButMarkedOutOfOrder() {
+        LocalDateTime now = LocalDateTime.now();
+        submit(fix(now, 52.52, 13.405, 2L));
+
+        Location late = fix(now.minusMinutes(1), 52.53, 13.415, 1L);
+        assertEquals(1, submit(late).getAccepted());
+        assertTrue(late.isOutOfOrder());
+    }
+
+    @Test
+    void enqueueRunsOutsideTheDriverLock() throws Exception {
+        CountDownLatch enqueueing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<FixSequencer.Admission> slow = executor.submit(() -> sequencer.submit(DRIVER,
+                    List.of(fix(LocalDateTime.now(), 52.52, 13.405, 1L)), fixes -> {
+                        enqueueing.countDown();
+                        await(release);
+                        return fixes.size();
+                    }));
+            assertTrue(enqueueing.await(5, TimeUnit.SECONDS));
+
+            // Another fix for the same driver gets through while the first is still queueing,
+            // and a retry of the first is recognised as one
+            assertEquals(1, submit(fix(LocalDateTime.now().plusSeconds(5), 52.53, 13.415, 2L)).getAccepted());
+            assertEquals(1, submit(fix(LocalDateTime.now(), 52.52, 13.405, 1L)).getDropped());
+
+            release.countDown();
+            assertEquals(1, slow.get(5, TimeUnit.SECONDS).getAccepted());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private FixSequencer.Admission submit(Location fix) {
+        return sequencer.submit(DRIVER, List.of(fix), fixes -> {
+            queued.addAll(fixes);
+            return fixes.size();
+        });
+    }
+
+    private static Location fix(LocalDateTime timestamp, double latitude, double longitude, Long sequence) {
+        return Location.builder()
+                .driverId(DRIVER)
+                .latitude(latitude)
+                .longitude(longitude)
+                .timestamp(timestamp)
+                .sequence(sequence)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
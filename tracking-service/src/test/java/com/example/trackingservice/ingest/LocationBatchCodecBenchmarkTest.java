@@ -0,0 +1,105 @@
+package com.example.trackingservice.ingest;
+
+import com.example.trackingservice.dto.LocationUpdateRequest;
+import com.example.trackingservice.model.Location;
+import com.example.trackingservice.model.TrackingStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static com.example.trackingservice.ingest.LocationBatchFixtures.encode;
+import static com.example.trackingservice.ingest.LocationBatchFixtures.sampleRequests;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Timed comparison of the two ingest paths on one thread: a JSON body per fix, as
+ * {@code POST /location} receives it, against one binary batch for the same fixes. Both
+ * sides decode into {@link Location}s and offer them to a bounded queue like the
+ * ingestion pipeline does. HTTP and bean validation costs are left out, which only
+ * flatters the JSON path.
+ * <p>
+ * Wall-clock timing is too noisy for shared CI runners, so this is tagged
+ * {@code benchmark} and excluded from {@code mvn test}; run it with
+ * {@code mvn test -DexcludedGroups= -Dgroups=benchmark}.
+ */
+@Tag("benchmark")
+class LocationBatchCodecBenchmarkTest {
+
+    private static final int FIXES = 1000;
+    private static final int WARMUP_ROUNDS = 300;
+    private static final int MEASURED_ROUNDS = 300;
+    private static final double REQUIRED_SPEEDUP = 10.0;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void binaryBatchDecodesAtLeastTenTimesFasterPerCore() throws Exception {
+        List<LocationUpdateRequest> requests = sampleRequests(FIXES);
+        List<byte[]> jsonBodies = new ArrayList<>(FIXES);
+        for (LocationUpdateRequest request : requests) {
+            jsonBodies.add(objectMapper.writeValueAsBytes(request));
+        }
+        byte[] batch = encode(requests);
+        BlockingQueue<Location> queue = new ArrayBlockingQueue<>(FIXES);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            ingestJson(jsonBodies, queue);
+            ingestBinary(batch, queue);
+        }
+
+        long jsonNanos = 0;
+        long binaryNanos = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            ingestJson(jsonBodies, queue);
+            jsonNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            ingestBinary(batch, queue);
+            binaryNanos += System.nanoTime() - start;
+        }
+
+        double fixes = (double) FIXES * MEASURED_ROUNDS;
+        double jsonPerFix = jsonNanos / fixes;
+        double binaryPerFix = binaryNanos / fixes;
+        double speedup = jsonPerFix / binaryPerFix;
+
+        assertTrue(speedup >= REQUIRED_SPEEDUP, String.format(
+                "binary ingest only %.1fx faster than JSON (%.0f vs %.0f ns/fix)", speedup, binaryPerFix, jsonPerFix));
+    }
+
+    private void ingestJson(List<byte[]> bodies, BlockingQueue<Location> queue) throws Exception {
+        for (byte[] body : bodies) {
+            LocationUpdateRequest request = objectMapper.readValue(body, LocationUpdateRequest.class);
+            queue.offer(Location.builder()
+                    .driverId(request.getDriverId())
+                    .orderId(request.getOrderId())
+                    .latitude(request.getLatitude())
+                    .longitude(request.getLongitude())
+                    .speed(request.getSpeed())
+                    .heading(request.getHeading())
+                    .accuracy(request.getAccuracy())
+                    .timestamp(request.getTimestamp())
+                    .status(TrackingStatus.ACTIVE)
+                    .sequence(request.getSequence())
+                    .build());
+        }
+        queue.clear();
+    }
+
+    private static void ingestBinary(byte[] batch, BlockingQueue<Location> queue) {
+        for (Location fix : LocationBatchCodec.decode(batch, FIXES).getFixes()) {
+            queue.offer(fix);
+        }
+        queue.clear();
+    }
+}
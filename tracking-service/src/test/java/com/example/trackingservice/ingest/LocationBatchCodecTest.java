@@ -0,0 +1,78 @@
+package com.example.trackingservice.ingest;
+
+import com.example.trackingservice.dto.LocationUpdateRequest;
+import com.example.trackingservice.model.Location;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.example.trackingservice.ingest.LocationBatchFixtures.encode;
+import static com.example.trackingservice.ingest.LocationBatchFixtures.sampleRequests;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LocationBatchCodecTest {
+
+    private static final int FIXES = 100;
+
+    @Test
+    void binaryBatchRoundTripsTheSameFixes() {
+        List<LocationUpdateRequest> requests = sampleRequests(FIXES);
+        LocationBatchCodec.DecodedBatch batch = LocationBatchCodec.decode(encode(requests), FIXES);
+        List<Location> fixes = batch.getFixes();
+
+        assertEquals(LocationBatchFixtures.DRIVER_ID, batch.getDriverId());
+        assertEquals(LocationBatchFixtures.ORDER_ID, batch.getOrderId());
+        assertEquals(FIXES, fixes.size());
+        for (int i = 0; i < FIXES; i++) {
+            assertEquals(requests.get(i).getLatitude(), fixes.get(i).getLatitude(), 1e-7);
+            assertEquals(requests.get(i).getLongitude(), fixes.get(i).getLongitude(), 1e-7);
+            assertEquals(requests.get(i).getTimestamp(), fixes.get(i).getTimestamp());
+            assertEquals(requests.get(i).getSequence(), fixes.get(i).getSequence());
+        }
+    }
+
+    @Test
+    void rejectsTruncatedFix() {
+        byte[] payload = encode(sampleRequests(2));
+
+        assertRejected(Arrays.copyOf(payload, payload.length - 3), "Truncated batch");
+    }
+
+    @Test
+    void rejectsIdLongerThanThePayload() {
+        // version, then a driver id length far beyond the bytes that follow
+        byte[] payload = ByteBuffer.allocate(5).put(LocationBatchCodec.VERSION).putShort((short) 500).array();
+
+        assertRejected(payload, "Truncated batch");
+    }
+
+    @Test
+    void rejectsTrailingBytes() {
+        byte[] payload = encode(sampleRequests(2));
+
+        assertRejected(Arrays.copyOf(payload, payload.length + 1), "Unexpected trailing bytes");
+    }
+
+    @Test
+    void rejectsNonFiniteValues() {
+        byte[] payload = encode(sampleRequests(1));
+        // The speed of the only fix sits right after its flags byte, 4 bytes before the end of
+        // its fixed part: 8 time + 4 lat + 4 lng + 1 flags
+        int speedOffset = payload.length - 33 + 17;
+        ByteBuffer.wrap(payload).putFloat(speedOffset, Float.NaN);
+
+        assertRejected(payload, "Fix 0 has a non-finite value");
+    }
+
+    private static void assertRejected(byte[] payload, String reason) {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> LocationBatchCodec.decode(payload, FIXES));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        assertEquals(reason, e.getReason());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.trackingservice.ingest;
+
+import com.example.trackingservice.dto.LocationUpdateRequest;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sample fixes and an encoder for the layout documented on {@link LocationBatchCodec},
+ * shared by the codec tests and the ingest benchmark.
+ */
+final class LocationBatchFixtures {
+
+    static final String DRIVER_ID = "DRV-1A2B3C4D";
+    static final String ORDER_ID = "ORD-000042";
+
+    private LocationBatchFixtures() {
+    }
+
+    static List<LocationUpdateRequest> sampleRequests(int count) {
+        List<LocationUpdateRequest> requests = new ArrayList<>(count);
+        long start = 1_700_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            requests.add(LocationUpdateRequest.builder()
+                    .driverId(DRIVER_ID)
+                    .orderId(ORDER_ID)
+                    .latitude(10.7769 + i * 1e-5)
+                    .longitude(106.7009 + i * 1e-5)
+                    .speed(32.5)
+                    .heading(90.0)
+                    .accuracy(4.0)
+                    .timestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(start + i * 1000L), ZoneId.systemDefault()))
+                    .sequence((long) i)
+                    .build());
+        }
+        return requests;
+    }
+
+    // Every fix carries speed, heading, accuracy and sequence
+    static byte[] encode(List<LocationUpdateRequest> requests) {
+        byte[] driverId = requests.get(0).getDriverId().getBytes(StandardCharsets.UTF_8);
+        byte[] orderId = requests.get(0).getOrderId().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(7 + driverId.length + orderId.length + requests.size() * 33);
+        buffer.put(LocationBatchCodec.VERSION);
+        buffer.putShort((short) driverId.length).put(driverId);
+        buffer.putShort((short) orderId.length).put(orderId);
+        buffer.putShort((short) requests.size());
+        for (LocationUpdateRequest request : requests) {
+            buffer.putLong(request.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            buffer.putInt((int) Math.round(request.getLatitude() * 1e7));
+            buffer.putInt((int) Math.round(request.getLongitude() * 1e7));
+            buffer.put((byte) (2 | 4 | 8 | 16));
+            buffer.putFloat(request.getSpeed().floatValue());
+            buffer.putFloat(request.getHeading().floatValue());
+            buffer.putFloat(request.getAccuracy().floatValue());
+            buffer.putInt(request.getSequence().intValue());
+        }
+        return buffer.array();
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.trackingservice.listener;
+
+import com.example.trackingservice.config.KafkaConfig;
+import com.example.trackingservice.dto.LocationResponse;
+import com.example.trackingservice.dto.OrderTrackingResponse;
+import com.example.trackingservice.realtime.LiveUpdateFanout;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Two fan-out nodes sharing one broker, as in {@code tracking.fanout.mode=kafka}. Each
+ * node's listener joins its own consumer group, so an update published once has to reach
+ * the subscribers of both.
+ */
+@SpringBootTest(classes = LiveUpdateListenerKafkaTest.TwoNodes.class, properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "tracking.kafka.topics.location-updates=location-updates",
+        "tracking.kafka.topics.delivery-status=delivery-status",
+        "tracking.kafka.topics.order-locations=order-locations"
+})
+@EmbeddedKafka(partitions = 1, topics = {"location-updates", "delivery-status", "order-locations"})
+class LiveUpdateListenerKafkaTest {
+
+    private static final long DELIVERY_TIMEOUT_MS = 10_000;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry registry;
+
+    @Autowired
+    @Qualifier("nodeA")
+    private LiveUpdateFanout nodeA;
+
+    @Autowired
+    @Qualifier("nodeB")
+    private LiveUpdateFanout nodeB;
+
+    @BeforeEach
+    void waitForAssignment() {
+        // The listeners start from the latest offset, so anything sent before they own their
+        // partition would be skipped
+        for (MessageListenerContainer container : registry.getListenerContainers()) {
+            ContainerTestUtils.waitForAssignment(container, embeddedKafka.getPartitionsPerTopic());
+        }
+        reset(nodeA, nodeB);
+    }
+
+    @Test
+    void everyNodeReceivesALocationPublishedOnce() throws Exception {
+        // 2 nodes x 3 topics, each in a group of its own
+        assertThat(registry.getListenerContainers()).hasSize(6);
+        assertThat(registry.getListenerContainers())
+                .extracting(MessageListenerContainer::getGroupId)
+                .doesNotHaveDuplicates();
+
+        LocationResponse location = LocationResponse.builder()
+                .driverId("D1")
+                .latitude(52.52)
+                .longitude(13.405)
+                .timestamp(LocalDateTime.now())
+                .build();
+        kafkaTemplate.send("location-updates", "D1", objectMapper.writeValueAsString(location));
+
+        for (LiveUpdateFanout node : new LiveUpdateFanout[]{nodeA, nodeB}) {
+            verify(node, timeout(DELIVERY_TIMEOUT_MS)).deliver(eq(LiveUpdateFanout.LOCATION_DESTINATION + "D1"),
+                    argThat(payload -> payload instanceof LocationResponse received
+                            && "D1".equals(received.getDriverId())
+                            && received.getLatitude() == 52.52));
+        }
+    }
+
+    @Test
+    void everyNodeReceivesAnOrderPositionPublishedOnce() throws Exception {
+        OrderTrackingResponse tracking = OrderTrackingResponse.builder()
+                .orderId("O1")
+                .driverId("D1")
+                .currentLatitude(52.52)
+                .currentLongitude(13.405)
+                .build();
+        kafkaTemplate.send("order-locations", "O1", objectMapper.writeValueAsString(tracking));
+
+        verify(nodeA, timeout(DELIVERY_TIMEOUT_MS)).deliver(eq(LiveUpdateFanout.ORDER_DESTINATION + "O1"), any());
+        verify(nodeB, timeout(DELIVERY_TIMEOUT_MS)).deliver(eq(LiveUpdateFanout.ORDER_DESTINATION + "O1"), any());
+    }
+
+    @Test
+    void fanOutGroupsCommitNoOffsets() throws Exception {
+        kafkaTemplate.send("location-updates", "D2", objectMapper.writeValueAsString(LocationResponse.builder()
+                .driverId("D2")
+                .latitude(52.52)
+                .longitude(13.405)
+                .timestamp(LocalDateTime.now())
+                .build()));
+        verify(nodeA, timeout(DELIVERY_TIMEOUT_MS)).deliver(eq(LiveUpdateFanout.LOCATION_DESTINATION + "D2"), any());
+        verify(nodeB, timeout(DELIVERY_TIMEOUT_MS)).deliver(eq(LiveUpdateFanout.LOCATION_DESTINATION + "D2"), any());
+
+        // Nothing committed means nothing left behind once a node's group goes away
+        try (AdminClient admin = AdminClient.create(Map.of(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedKafka.getBrokersAsString()))) {
+            for (MessageListenerContainer container : registry.getListenerContainers()) {
+                assertThat(admin.listConsumerGroupOffsets(container.getGroupId())
+                        .partitionsToOffsetAndMetadata().get(10, TimeUnit.SECONDS))
+                        .isEmpty();
+            }
+        }
+    }
+
+    @Configuration
+    @Import(KafkaConfig.class)
+    @ImportAutoConfiguration({KafkaAutoConfiguration.class, JacksonAutoConfiguration.class})
+    static class TwoNodes {
+
+        @Bean
+        LiveUpdateFanout nodeA() {
+            return mock(LiveUpdateFanout.class);
+        }
+
+        @Bean
+        LiveUpdateFanout nodeB() {
+            return mock(LiveUpdateFanout.class);
+        }
+
+        @Bean
+        LiveUpdateListener nodeAListener(ObjectMapper objectMapper) {
+            return new LiveUpdateListener(nodeA(), objectMapper);
+        }
+
+        @Bean
+        LiveUpdateListener nodeBListener(ObjectMapper objectMapper) {
+            return new LiveUpdateListener(nodeB(), objectMapper);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.userservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Creates the trigram indexes behind user search. Hibernate owns the users table, so the
+ * indexes are added once it exists rather than by a migration that would run before it.
+ * Every statement is idempotent and builds concurrently, so restarts are free and a first
+ * build does not block writes. A concurrent build that fails leaves an INVALID index
+ * behind, which IF NOT EXISTS would then skip forever, so such an index is dropped and
+ * built again. Without the indexes search still works, it just scans.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexInitializer {
+
+    private static final Map<String, String> INDEXES = Map.of(
+            "idx_users_email_trgm", "ON users USING gin (LOWER(email) gin_trgm_ops)",
+            "idx_users_phone_trgm", "ON users USING gin (LOWER(phone) gin_trgm_ops)",
+            "idx_users_full_name_trgm", "ON users USING gin (LOWER(full_name) gin_trgm_ops)"
+    );
+
+    private static final String INVALID_INDEX_SQL =
+            "SELECT count(*) FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+            "WHERE c.relname = ? AND c.relnamespace = to_regnamespace(current_schema()) AND NOT i.indisvalid";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        } catch (DataAccessException e) {
+            log.warn("Could not create user search trigram indexes, search will fall back to scanning", e);
+            return;
+        }
+        // One index failing to build does not hold back the others
+        INDEXES.forEach((name, definition) -> {
+            try {
+                createIndex(name, definition);
+            } catch (DataAccessException e) {
+                log.warn("Could not create user search index {}, searches on it will scan", name, e);
+            }
+        });
+    }
+
+    private void createIndex(String name, String definition) {
+        Integer invalid = jdbcTemplate.queryForObject(INVALID_INDEX_SQL, Integer.class, name);
+        if (invalid != null && invalid > 0) {
+            log.warn("Rebuilding user search index {} left invalid by an interrupted build", name);
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+        }
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name + " " + definition);
+    }
+}
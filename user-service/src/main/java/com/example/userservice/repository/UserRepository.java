@@ -1,30 +1,54 @@
 package com.example.userservice.repository;
 
 import com.example.userservice.entity.User;
-import feign.Param;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.stereotype.Repository;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User,String> {
+
+    // Totals above this are reported as the cap; counting every match is what made search slow.
+    // The count queries stop one row past it, so a total of exactly the cap is not mistaken
+    // for a capped one
+    int SEARCH_COUNT_CAP = 1000;
+
+    // Same expressions as the trigram indexes created by SearchIndexInitializer, so the
+    // planner can OR the three index scans instead of reading the whole table
+    String SEARCH_MATCHES = "(LOWER(u.email) LIKE :pattern OR LOWER(u.phone) LIKE :pattern OR LOWER(u.full_name) LIKE :pattern)";
+
+    // Exact hits first, then prefixes of a field, then a word of the name, then anything else
+    String SEARCH_RELEVANCE = "CASE WHEN LOWER(u.email) = :keyword OR LOWER(u.phone) = :keyword OR LOWER(u.full_name) = :keyword THEN 0 " +
+            "WHEN LOWER(u.email) LIKE :prefix OR LOWER(u.phone) LIKE :prefix OR LOWER(u.full_name) LIKE :prefix THEN 1 " +
+            "WHEN LOWER(u.full_name) LIKE :wordPrefix THEN 2 " +
+            "ELSE 3 END, LENGTH(u.full_name), u.id";
+
     Optional<User> findByEmailAndIsDeletedFalse(String email);
     Optional<User> findByPhoneAndIsDeletedFalse(String phone);
     Optional<User> findByIdAndIsDeletedFalse(String id);
     Optional<User> findByAuthId(String authId);
-    @Query(value = "SELECT * FROM users u WHERE " +
-            "(:keyword IS NULL OR :keyword = '' " +
-            "OR LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-            "OR LOWER(u.phone) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-            "OR LOWER(u.full_name) LIKE LOWER(CONCAT('%', :keyword, '%')))",
-            countQuery = "SELECT count(*) FROM users u WHERE " +
-                    "(:keyword IS NULL OR :keyword = '' " +
-                    "OR LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-                    "OR LOWER(u.phone) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-                    "OR LOWER(u.full_name) LIKE LOWER(CONCAT('%', :keyword, '%')))",
+
+    /**
+     * @param keyword    lower-cased search term
+     * @param pattern    {@code %keyword%} with LIKE wildcards in the keyword escaped
+     * @param prefix     {@code keyword%}, escaped the same way
+     * @param wordPrefix {@code % keyword%}, escaped the same way
+     */
+    @Query(value = "SELECT * FROM users u WHERE " + SEARCH_MATCHES + " ORDER BY " + SEARCH_RELEVANCE,
+            countQuery = "SELECT count(*) FROM (SELECT 1 FROM users u WHERE " + SEARCH_MATCHES +
+                    " LIMIT " + (SEARCH_COUNT_CAP + 1) + ") matched",
+            nativeQuery = true)
+    Page<User> searchByKeywordNative(@Param("keyword") String keyword,
+                                     @Param("pattern") String pattern,
+                                     @Param("prefix") String prefix,
+                                     @Param("wordPrefix") String wordPrefix,
+                                     Pageable pageable);
+
+    @Query(value = "SELECT * FROM users u ORDER BY u.created_at DESC, u.id",
+            countQuery = "SELECT count(*) FROM (SELECT 1 FROM users u LIMIT " + (SEARCH_COUNT_CAP + 1) + ") listed",
             nativeQuery = true)
-    Page<User> searchByKeywordNative(@Param("keyword") String keyword, Pageable pageable);
+    Page<User> findAllCappedNative(Pageable pageable);
 }
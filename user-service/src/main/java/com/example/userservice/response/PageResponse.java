@@ -14,4 +14,5 @@ public class PageResponse<T> {
     private int size;
     private long totalElements;
     private int totalPages;
+    private boolean totalCapped; // totalElements is a lower bound, there may be more matches
 }
@@ -169,21 +169,38 @@ public class UserService implements IUserService {
     @Override
     public PageResponse<UserResponse> searchUsers(String keyword, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<User> userPage = userRepository.searchByKeywordNative(keyword, pageable);
+        Page<User> userPage;
+        if (keyword == null || keyword.isBlank()) {
+            userPage = userRepository.findAllCappedNative(pageable);
+        } else {
+            String term = keyword.trim().toLowerCase();
+            String escaped = escapeLike(term);
+            userPage = userRepository.searchByKeywordNative(term, "%" + escaped + "%", escaped + "%", "% " + escaped + "%", pageable);
+        }
 
         List<UserResponse> data = userPage.getContent().stream()
                 .map(this::toUserResponse)
                 .collect(Collectors.toList());
 
+        // The count stops at SEARCH_COUNT_CAP + 1 rows, so anything above the cap means "more"
+        boolean totalCapped = userPage.getTotalElements() > UserRepository.SEARCH_COUNT_CAP;
+        long totalElements = totalCapped ? UserRepository.SEARCH_COUNT_CAP : userPage.getTotalElements();
+        int totalPages = userPage.getSize() > 0 ? (int) Math.ceil((double) totalElements / userPage.getSize()) : 1;
+
         return new PageResponse<>(
                 data,
                 userPage.getNumber(),
                 userPage.getSize(),
-                userPage.getTotalElements(),
-                userPage.getTotalPages()
+                totalElements,
+                totalPages,
+                totalCapped
         );
     }
 
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     @Override
     public UserResponse getProfile() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();